@@ -0,0 +1,171 @@
+package taintanalysis.benchmarks;
+
+import taintanalysis.Main;
+import taintanalysis.utils.AnalysisMetrics;
+import taintanalysis.utils.AnalysisMetrics.Phase;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * <h1> AnalysisBenchmark </h1>
+ *
+ * This class measures the whole analysis pipeline on synthetic corpora of increasing size.
+ * For each number of files it generates a corpus, runs {@link Main} on it and reports files per second,
+ * symbol resolutions per second, resolutions answered from the cache, peak heap usage and the time spent in each phase.
+ * It must be launched from the project directory, where the configuration file is found.
+ * <p>
+ * Options, all in the form {@code --name=value}:
+ * <ul>
+ *     <li>{@code files}: comma-separated numbers of files to analyze (default 10,100,1000).</li>
+ *     <li>{@code methods}: methods of each class (default 10).</li>
+ *     <li>{@code sources}: calls to external sources in each method (default 2).</li>
+ *     <li>{@code statements}: ordinary calls in each method (default 6).</li>
+ *     <li>{@code depth}: blocks enclosing the body of each method (default 2).</li>
+ *     <li>{@code workers}: workers used by the analysis (default 1).</li>
+ *     <li>{@code dataflow}: runs the analysis with the dataflow option if true (default false).</li>
+ *     <li>{@code warmup}: files of the run executed before the measured ones and not reported (default 50).</li>
+ *     <li>{@code seed}: seed of the generator (default 42).</li>
+ *     <li>{@code dir}: directory of the corpora (default target/analysis-benchmark).</li>
+ *     <li>{@code log}: keeps the output of the analysis on the console if true (default false).</li>
+ * </ul>
+ */
+public class AnalysisBenchmark {
+
+    private final Map<String, String> options;
+    private final Path directory;
+
+    private AnalysisBenchmark(Map<String, String> options) {
+        this.options = options;
+        this.directory = Paths.get(options.getOrDefault("dir", "target/analysis-benchmark"));
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the options
+     * @throws Exception the exception
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid option: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new AnalysisBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        int warmup = intOption("warmup", 50);
+        if (warmup > 0) {
+            measure(warmup);
+        }
+
+        System.out.printf("%8s %9s %9s %10s %12s %12s %12s %10s %10s %10s %10s %10s%n",
+                "files", "lines", "time(s)", "files/s", "resolutions", "cached", "resol./s",
+                "heap(MB)", "parse(ms)", "visit(ms)", "print(ms)", "write(ms)");
+        for (String files : options.getOrDefault("files", "10,100,1000").split(",")) {
+            Result result = measure(Integer.parseInt(files.trim()));
+            double seconds = result.nanos / 1e9;
+            var metrics = AnalysisMetrics.getInstance();
+            System.out.printf("%8d %9d %9.2f %10.1f %12d %12d %12.0f %10.1f %10.0f %10.0f %10.0f %10.0f%n",
+                    result.files, result.lines, seconds, result.files / seconds,
+                    metrics.getResolutions(), metrics.getCachedResolutions(), metrics.getResolutions() / seconds,
+                    result.peakHeap / (1024.0 * 1024.0),
+                    millis(Phase.PARSE), millis(Phase.VISIT), millis(Phase.PRINT), millis(Phase.WRITE));
+        }
+    }
+
+    /**
+     * Generates a corpus with the given number of files and analyzes it.
+     *
+     * @param files the number of files
+     * @return result
+     * @throws Exception the exception
+     */
+    private Result measure(int files) throws Exception {
+        Path source = directory.resolve("source");
+        Path destination = directory.resolve("destination");
+        delete(directory);
+
+        var generator = new JavaCorpusGenerator(intOption("methods", 10), intOption("sources", 2),
+                intOption("statements", 6), intOption("depth", 2), intOption("seed", 42));
+        long lines = generator.generate(source, files);
+
+        List<String> args = new ArrayList<>(List.of(
+                "--source=" + source,
+                "--destination=" + destination,
+                "--workers=" + intOption("workers", 1)));
+        if (Boolean.parseBoolean(options.getOrDefault("dataflow", "false"))) {
+            args.add("--dataflow");
+        }
+
+        AnalysisMetrics.getInstance().reset();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        PrintStream console = System.out;
+        if (!Boolean.parseBoolean(options.getOrDefault("log", "false"))) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        long start = System.nanoTime();
+        try {
+            Main.main(args.toArray(new String[0]));
+        } finally {
+            System.setOut(console);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        return new Result(files, lines, nanos, peakHeap);
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static double millis(Phase phase) {
+        return AnalysisMetrics.getInstance().getPhaseNanos(phase) / 1e6;
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Measurements of a run. The peak heap is the sum of the peaks of the heap memory pools,
+     * which may have been reached at different times.
+     */
+    private record Result(int files, long lines, long nanos, long peakHeap) {
+    }
+
+}
@@ -0,0 +1,180 @@
+package taintanalysis.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import taintanalysis.service.InputSanitizer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1> InputSanitizerBenchmark </h1>
+ *
+ * This class measures the throughput, the latency and, through the GC profiler, the allocation rate
+ * of each public sanitization method of InputSanitizer.
+ * Each method sanitizes the inputs of its corpus in turn, with either a small or a large fraction of attack payloads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InputSanitizerBenchmark {
+
+    private static final int STREAM_LENGTH = 64 * 1024;
+
+    @Param({"0.1", "0.9"})
+    private double attackRatio;
+
+    private String[] formFields;
+    private String[] jsonDocuments;
+    private byte[][] jsonDocumentBytes;
+    private String[] htmlDocuments;
+    private String[] shellArguments;
+    private String[] textStreams;
+    private String[] largeTextStreams;
+    private byte[][] largeTextStreamBytes;
+    private String[] remotePayloads;
+    private String[] largeRemotePayloads;
+    private byte[][] largeRemotePayloadBytes;
+    private String[] emailBodies;
+    private String[] fileNames;
+
+    private int next;
+    private final char[] chars = new char[8192];
+    private final byte[] bytes = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void generateCorpus() {
+        var corpus = new SanitizerCorpus(42, attackRatio);
+        formFields = corpus.formFields();
+        jsonDocuments = corpus.jsonDocuments();
+        htmlDocuments = corpus.htmlDocuments();
+        shellArguments = corpus.shellArguments();
+        textStreams = corpus.textStreams(2048);
+        largeTextStreams = corpus.textStreams(STREAM_LENGTH);
+        remotePayloads = corpus.remotePayloads(2048);
+        largeRemotePayloads = corpus.remotePayloads(STREAM_LENGTH);
+        emailBodies = corpus.emailBodies();
+        fileNames = corpus.fileNames();
+        jsonDocumentBytes = utf8(jsonDocuments);
+        largeTextStreamBytes = utf8(largeTextStreams);
+        largeRemotePayloadBytes = utf8(largeRemotePayloads);
+    }
+
+    @Benchmark
+    public String userInput() {
+        return InputSanitizer.sanitizeUserInput(nextOf(formFields));
+    }
+
+    @Benchmark
+    public String streamInput() {
+        return InputSanitizer.sanitizeStreamInput(nextOf(textStreams));
+    }
+
+    @Benchmark
+    public long streamInputReader() throws IOException {
+        return drain(InputSanitizer.sanitizeStreamInput(new StringReader(nextOf(largeTextStreams))));
+    }
+
+    @Benchmark
+    public long streamInputStream() throws IOException {
+        return drain(InputSanitizer.sanitizeStreamInput(new ByteArrayInputStream(nextOf(largeTextStreamBytes))));
+    }
+
+    @Benchmark
+    public String commandLineArgs() {
+        return InputSanitizer.sanitizeCommandLineArgs(nextOf(shellArguments));
+    }
+
+    @Benchmark
+    public String apiResponseJson() {
+        return InputSanitizer.sanitizeApiResponse(nextOf(jsonDocuments));
+    }
+
+    @Benchmark
+    public String apiResponseHtml() {
+        return InputSanitizer.sanitizeApiResponse(nextOf(htmlDocuments));
+    }
+
+    @Benchmark
+    public long apiResponseReader() throws IOException {
+        return drain(InputSanitizer.sanitizeApiResponse(new StringReader(nextOf(jsonDocuments))));
+    }
+
+    @Benchmark
+    public long apiResponseStream() throws IOException {
+        return drain(InputSanitizer.sanitizeApiResponse(new ByteArrayInputStream(nextOf(jsonDocumentBytes))));
+    }
+
+    @Benchmark
+    public String remoteServiceCall() {
+        return InputSanitizer.sanitizeRemoteServiceCall(nextOf(remotePayloads));
+    }
+
+    @Benchmark
+    public long remoteServiceCallReader() throws IOException {
+        return drain(InputSanitizer.sanitizeRemoteServiceCall(new StringReader(nextOf(largeRemotePayloads))));
+    }
+
+    @Benchmark
+    public long remoteServiceCallStream() throws IOException {
+        return drain(InputSanitizer.sanitizeRemoteServiceCall(new ByteArrayInputStream(nextOf(largeRemotePayloadBytes))));
+    }
+
+    @Benchmark
+    public String emailInput() {
+        return InputSanitizer.sanitizeEmailInput(nextOf(emailBodies));
+    }
+
+    @Benchmark
+    public String uploadFile() {
+        return InputSanitizer.sanitizeUploadFile(nextOf(fileNames));
+    }
+
+    private <T> T nextOf(T[] inputs) {
+        next = (next + 1) % SanitizerCorpus.SIZE;
+        return inputs[next];
+    }
+
+    private static byte[][] utf8(String[] inputs) {
+        byte[][] encoded = new byte[inputs.length][];
+        for (int i = 0; i < inputs.length; i++) {
+            encoded[i] = inputs[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private long drain(Reader reader) throws IOException {
+        long total = 0;
+        for (int count = reader.read(chars); count >= 0; count = reader.read(chars)) {
+            total += count;
+        }
+        return total;
+    }
+
+    private long drain(InputStream stream) throws IOException {
+        long total = 0;
+        for (int count = stream.read(bytes); count >= 0; count = stream.read(bytes)) {
+            total += count;
+        }
+        return total;
+    }
+
+}
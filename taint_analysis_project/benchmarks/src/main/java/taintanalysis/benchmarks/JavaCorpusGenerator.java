@@ -0,0 +1,149 @@
+package taintanalysis.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * <h1> JavaCorpusGenerator </h1>
+ *
+ * This class generates synthetic Java classes to be analyzed, shaped like the user files of the project:
+ * methods that read from the external sources of the configuration, mixed with ordinary calls on JDK types,
+ * inside blocks nested up to a given depth. Only JDK types are used, so every call can be resolved.
+ * The generation is deterministic for a given seed.
+ */
+public class JavaCorpusGenerator {
+
+    private static final String PACKAGE_NAME = "org.example.generated";
+
+    private final int methodsPerFile;
+    private final int sourceCallsPerMethod;
+    private final int statementsPerMethod;
+    private final int nestingDepth;
+    private final Random random;
+
+    /**
+     * Instantiates a generator.
+     *
+     * @param methodsPerFile the number of methods of each class
+     * @param sourceCallsPerMethod the number of calls to external sources in each method
+     * @param statementsPerMethod the number of ordinary calls in each method
+     * @param nestingDepth the number of blocks enclosing the body of each method
+     * @param seed the seed of the generator
+     */
+    public JavaCorpusGenerator(int methodsPerFile, int sourceCallsPerMethod, int statementsPerMethod,
+                               int nestingDepth, long seed) {
+        this.methodsPerFile = methodsPerFile;
+        this.sourceCallsPerMethod = sourceCallsPerMethod;
+        this.statementsPerMethod = statementsPerMethod;
+        this.nestingDepth = nestingDepth;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes the given number of classes in the directory.
+     *
+     * @param directory the directory
+     * @param files the number of files
+     * @return the total number of lines written
+     * @throws IOException the io exception
+     */
+    public long generate(Path directory, int files) throws IOException {
+        Files.createDirectories(directory);
+        long lines = 0;
+        for (int i = 0; i < files; i++) {
+            String className = "Generated" + i;
+            String content = generateClass(className);
+            Files.writeString(directory.resolve(className + ".java"), content, StandardCharsets.UTF_8);
+            lines += content.lines().count();
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the source code of a class.
+     *
+     * @param className the class name
+     * @return string
+     */
+    String generateClass(String className) {
+        var code = new StringBuilder()
+                .append("package ").append(PACKAGE_NAME).append(";\n\n")
+                .append("import java.io.*;\n")
+                .append("import java.util.Scanner;\n\n")
+                .append("public class ").append(className).append(" {\n\n")
+                .append("    private final Scanner console = new Scanner(System.in);\n")
+                .append("    private BufferedReader input;\n\n")
+                .append("    public ").append(className).append("() {\n")
+                .append("        input = new BufferedReader(new InputStreamReader(System.in));\n")
+                .append("    }\n");
+        for (int method = 0; method < methodsPerFile; method++) {
+            appendMethod(code, method);
+        }
+        return code.append("}\n").toString();
+    }
+
+    private void appendMethod(StringBuilder code, int method) {
+        code.append("\n    public void process").append(method).append("(String path) throws IOException {\n");
+        String indent = "        ";
+        for (int depth = 0; depth < nestingDepth; depth++) {
+            code.append(indent).append(depth % 2 == 0
+                    ? "if (path != null) {\n"
+                    : "for (int i" + depth + " = 0; i" + depth + " < 3; i" + depth + "++) {\n");
+            indent += "    ";
+        }
+
+        int variable = 0;
+        int sourceCalls = 0;
+        int statements = 0;
+        while (sourceCalls < sourceCallsPerMethod || statements < statementsPerMethod) {
+            boolean source = statements >= statementsPerMethod
+                    || (sourceCalls < sourceCallsPerMethod && random.nextBoolean());
+            if (source) {
+                appendSourceCall(code, indent, variable++);
+                sourceCalls++;
+            } else {
+                appendStatement(code, indent, variable++);
+                statements++;
+            }
+        }
+
+        for (int depth = nestingDepth; depth > 0; depth--) {
+            indent = indent.substring(4);
+            code.append(indent).append("}\n");
+        }
+        code.append("    }\n");
+    }
+
+    private void appendSourceCall(StringBuilder code, String indent, int n) {
+        switch (random.nextInt(6)) {
+            case 0 -> code.append(indent).append("Scanner scanner").append(n).append(" = new Scanner(System.in);\n")
+                    .append(indent).append("String value").append(n).append(" = scanner").append(n).append(".nextLine();\n");
+            case 1 -> code.append(indent).append("BufferedReader reader").append(n)
+                    .append(" = new BufferedReader(new InputStreamReader(System.in));\n")
+                    .append(indent).append("String value").append(n).append(" = reader").append(n).append(".readLine();\n");
+            case 2 -> code.append(indent).append("InputStream stream").append(n)
+                    .append(" = new FileInputStream(\"input.txt\");\n")
+                    .append(indent).append("int value").append(n).append(" = stream").append(n).append(".read();\n");
+            case 3 -> code.append(indent).append("BufferedReader file").append(n)
+                    .append(" = new BufferedReader(new FileReader(new File(path)));\n")
+                    .append(indent).append("String value").append(n).append(" = file").append(n).append(".readLine();\n");
+            case 4 -> code.append(indent).append("String value").append(n).append(" = console.nextLine();\n");
+            default -> code.append(indent).append("String value").append(n).append(" = input.readLine();\n");
+        }
+    }
+
+    private void appendStatement(StringBuilder code, String indent, int n) {
+        switch (random.nextInt(4)) {
+            case 0 -> code.append(indent).append("StringBuilder builder").append(n).append(" = new StringBuilder();\n")
+                    .append(indent).append("builder").append(n).append(".append(path).append(").append(n).append(");\n");
+            case 1 -> code.append(indent).append("String text").append(n).append(" = path.trim().toLowerCase();\n");
+            case 2 -> code.append(indent).append("int max").append(n).append(" = Math.max(path.length(), ")
+                    .append(n).append(");\n");
+            default -> code.append(indent).append("System.out.println(\"Step ").append(n).append(": \" + path);\n");
+        }
+    }
+
+}
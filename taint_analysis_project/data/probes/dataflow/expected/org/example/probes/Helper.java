@@ -0,0 +1,20 @@
+package org.example.probes;
+
+/**
+ * A class of another file, whose methods are not followed by the analysis of the files calling them.
+ */
+public class Helper {
+
+    public static String last;
+
+    private final String value;
+
+    public Helper(String value) {
+        this.value = value;
+    }
+
+    public static void run(String value) {
+        System.out.println(value);
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.example.probes;
+
+import java.util.Scanner;
+
+/**
+ * Data assigned to a static field, written through the name of its class, outlives the method and is sanitized.
+ */
+public class StaticFields {
+
+    static String shared;
+
+    static class Holder {
+        static String value;
+    }
+
+    // Sanitized: the field of the nested class keeps the value after the method returns.
+    public void fieldOfNestedClass() {
+        Scanner scanner = new Scanner(System.in);
+        Holder.value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+    }
+
+    // Sanitized: the static field of this class is written through the name of the class.
+    public void ownStaticField() {
+        Scanner scanner = new Scanner(System.in);
+        StaticFields.shared = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+    }
+
+    // Sanitized: the static field belongs to a class of another file.
+    public void fieldOfOtherFile() {
+        Scanner scanner = new Scanner(System.in);
+        String value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        Helper.last = value;
+    }
+
+    // Left unsanitized: only the length of the value is passed to a static method of the JDK.
+    public void staticJdkMethod() {
+        Scanner scanner = new Scanner(System.in);
+        String value = scanner.nextLine();
+        int length = Math.max(value.length(), 1);
+        if (length > 10) {
+            System.out.println("too long");
+        }
+    }
+
+}
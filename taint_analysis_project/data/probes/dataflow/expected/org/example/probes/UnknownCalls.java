@@ -0,0 +1,64 @@
+package org.example.probes;
+
+import java.util.Scanner;
+
+/**
+ * Data passed to methods and constructors whose effect is unknown, or thrown, leaves the method and is sanitized.
+ * Data that only flows through the JDK or through a private method of the file that does not leak it is left as is.
+ */
+public class UnknownCalls {
+
+    // Sanitized: a subclass may override process and send the value anywhere.
+    public void overridableHelper() {
+        Scanner scanner = new Scanner(System.in);
+        String value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        process(value);
+    }
+
+    public void process(String value) {
+    }
+
+    // Sanitized: the static method of another file is not analyzed.
+    public void staticHelperOfOtherFile() {
+        Scanner scanner = new Scanner(System.in);
+        String value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        Helper.run(value);
+    }
+
+    // Sanitized: the constructor of another file is not analyzed.
+    public void constructorOfOtherFile() {
+        Scanner scanner = new Scanner(System.in);
+        String value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        new Helper(value);
+    }
+
+    // Sanitized: the message of the exception leaves the method.
+    public void thrownValue() {
+        Scanner scanner = new Scanner(System.in);
+        String value = InputSanitizer.sanitizeUserInput(scanner.nextLine());
+        if (value.isEmpty()) {
+            throw new IllegalStateException(value);
+        }
+    }
+
+    // Left unsanitized: the private method does not let the value leave.
+    public void privateHelper() {
+        Scanner scanner = new Scanner(System.in);
+        String value = scanner.nextLine();
+        ignore(value);
+    }
+
+    private void ignore(String value) {
+    }
+
+    // Left unsanitized: the value only flows through methods of the JDK into a local variable.
+    public void jdkOnly() {
+        Scanner scanner = new Scanner(System.in);
+        String value = scanner.nextLine();
+        int length = value.trim().length();
+        if (length > 10) {
+            System.out.println("too long");
+        }
+    }
+
+}
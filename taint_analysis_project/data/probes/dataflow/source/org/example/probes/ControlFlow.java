@@ -0,0 +1,81 @@
+package org.example.probes;
+
+import java.util.Scanner;
+
+/**
+ * Data followed through loops, exceptions, switch statements and recursive methods.
+ */
+public class ControlFlow {
+
+    // Sanitized: the value read in one iteration is printed in the next one.
+    public void loop() {
+        Scanner scanner = new Scanner(System.in);
+        String last = "";
+        for (int i = 0; i < 3; i++) {
+            if (i == 2) {
+                System.out.println(last);
+            }
+            last = scanner.nextLine();
+        }
+    }
+
+    // Sanitized: the value assigned in the try block is printed in the catch clause.
+    public void tryCatch() {
+        Scanner scanner = new Scanner(System.in);
+        String value = "";
+        try {
+            value = scanner.nextLine();
+            Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.out.println(value);
+        }
+    }
+
+    // Sanitized: the first case falls through to the second one, which prints the value.
+    public void switchFallthrough(int option) {
+        Scanner scanner = new Scanner(System.in);
+        String value = "default";
+        switch (option) {
+            case 1:
+                value = scanner.nextLine();
+            case 2:
+                System.out.println(value);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Left unsanitized: the value is replaced before it is printed.
+    public void overwritten() {
+        Scanner scanner = new Scanner(System.in);
+        String value = scanner.nextLine();
+        value = "constant";
+        System.out.println(value);
+    }
+
+    // Sanitized: the recursive method returns its argument.
+    public void recursion() {
+        Scanner scanner = new Scanner(System.in);
+        String line = scanner.nextLine();
+        String text = repeat(line, 3);
+        System.out.println(text);
+    }
+
+    // Left unsanitized: the recursive method does not return its argument.
+    public void recursionWithoutFlow() {
+        Scanner scanner = new Scanner(System.in);
+        String line = scanner.nextLine();
+        int depth = depth(line, 3);
+        System.out.println(depth);
+    }
+
+    private static String repeat(String value, int times) {
+        return times == 0 ? value : repeat(value + value, times - 1);
+    }
+
+    private static int depth(String value, int times) {
+        return times == 0 ? 0 : depth(value, times - 1) + 1;
+    }
+
+}
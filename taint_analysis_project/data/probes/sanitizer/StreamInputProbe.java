@@ -0,0 +1,81 @@
+import taintanalysis.service.InputSanitizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <h1> StreamInputProbe </h1>
+ *
+ * This program checks that the input stream sanitization gives the same text when the input is read from a Reader
+ * as when it is passed as a String. The inputs are longer than the lookahead window of the reader, and their tags,
+ * script elements and runs of non-ASCII text fall across the places where a chunk could end.
+ * It prints each input that gives a different text, and exits with status 1 if there is any.
+ */
+public class StreamInputProbe {
+
+    private static final String TAG = "<img src=x onerror=alert(1)>";
+    private static final String[] WORDS = {
+            "\u00E9", "\u00E9\u00E9", "e\u0301", "\uFF21\uFF22", "\uD83D\uDE00", "\uFB05", "\u3000",
+            "\uFF1C", "\uFE64", "\uFF1Cb\uFF1E", "\uFF1Cscript\uFF1Ealert(1)\uFF1C/script\uFF1E",
+            "<b>", TAG, "<a\nhref=x>", "DROP", "on", "click=", "../", "x", "\t", "  "
+    };
+
+    public static void main(String[] args) throws IOException {
+        List<String> inputs = new ArrayList<>();
+        // A fullwidth '<' before the end of the window, and a tag across it.
+        inputs.add("\uFF1C " + "\u00E9".repeat(8187) + TAG + " tail");
+        // Spaces followed by non-ASCII text, and a tag across the end of the window.
+        inputs.add("\u00E9 ".repeat(4094) + "\u00E9" + TAG + " tail");
+        inputs.add("\u00E9 ".repeat(4090) + TAG + " tail");
+        // A script element formed by fullwidth brackets across the end of the window.
+        inputs.add("\u00E9 ".repeat(4080) + "\uFF1Cscript\uFF1E alert(1) \uFF1C/script\uFF1E tail");
+        inputs.add("\u00E9 ".repeat(3000) + "\uFF1Cscript\uFF1E " + "\u00E9 ".repeat(2000)
+                + "\uFF1C/script\uFF1E tail");
+        // The starts of script elements that are never completed, followed by a long text.
+        inputs.add("\uFF1Cscript ".repeat(2) + "\u00E9 ".repeat(9000) + "\uFF1C/script\uFF1E tail");
+        // Long ASCII text with tags.
+        inputs.add("a <b>c</b> ".repeat(2000) + TAG + " tail");
+
+        var random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            var input = new StringBuilder();
+            int length = 8000 + random.nextInt(20000);
+            while (input.length() < length) {
+                input.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(4) == 0 ? "" : " ");
+            }
+            inputs.add(input.toString());
+        }
+
+        int failures = 0;
+        for (String input : inputs) {
+            String expected = InputSanitizer.sanitizeStreamInput(input);
+            String actual = readAll(InputSanitizer.sanitizeStreamInput(new StringReader(input)));
+            if (!expected.equals(actual)) {
+                failures++;
+                System.out.printf("Different output for an input of %d characters starting with \"%s\"%n"
+                                + "  string: ...%s%n  reader: ...%s%n", input.length(),
+                        input.substring(0, 20), tail(expected), tail(actual));
+            }
+        }
+        System.out.printf("%d of %d inputs differ%n", failures, inputs.size());
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String readAll(Reader reader) throws IOException {
+        var text = new StringBuilder();
+        char[] buffer = new char[1000];
+        for (int count = reader.read(buffer); count >= 0; count = reader.read(buffer)) {
+            text.append(buffer, 0, count);
+        }
+        return text.toString();
+    }
+
+    private static String tail(String text) {
+        return text.substring(Math.max(0, text.length() - 60));
+    }
+
+}
@@ -1,13 +1,11 @@
 package taintanalysis;
 
-import com.github.javaparser.ast.CompilationUnit;
-import taintanalysis.error.ErrorCode;
-import taintanalysis.service.MethodCallVisitor;
+import taintanalysis.config.RunOptions;
+import taintanalysis.service.AnalysisEngine;
+import taintanalysis.utils.AsyncLogger;
 import taintanalysis.utils.FileUtils;
-import java.util.List;
 
-import static taintanalysis.error.ErrorCode.generateErrorException;
-import static taintanalysis.utils.FileUtils.*;
+import java.util.stream.Stream;
 
 /**
  * <h1> Taint Analysis </h1>
@@ -19,22 +17,21 @@ public class Main {
 
     /**
      * This is the main method from which methods to analyze user files will be called.
+     * The arguments select the execution mode, see {@link RunOptions#fromArgs(String[])}.
      *
      * @param args the input arguments
      * @throws Exception the exception
      */
     public static void main(String[] args) throws Exception {
 
-        List<String> sourcesList = FileUtils.getSourcesList();
+        RunOptions options = RunOptions.fromArgs(args);
+        AsyncLogger.getInstance().setLevel(options.getLogLevel());
 
-        if (sourcesList.isEmpty())
-            throw generateErrorException(ErrorCode.JAVA_FILE_NOT_FOUND);
-
-        for (String fileName : sourcesList) {
-            CompilationUnit cu = retrieveCompilationUnit(SOURCE_BASE_PATH + fileName);
-            var methodCallVisitor = new MethodCallVisitor(cu);
-            methodCallVisitor.visit(cu, null);
-            writeOutputFile(SOURCE_BASE_PATH + fileName, cu.toString());
+        try (Stream<String> sources = FileUtils.streamSources(options.getSourceDirectory(),
+                options.getDestinationDirectory(), options.getIncludes(), options.getExcludes())) {
+            new AnalysisEngine(options).run(sources);
+        } finally {
+            AsyncLogger.getInstance().flush();
         }
 
     }
@@ -1,140 +1,171 @@
 package taintanalysis.aspect;
 
-import com.github.javaparser.ast.expr.Expression;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.*;
-import taintanalysis.config.Source;
-import java.util.List;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LiteralExpr;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
-import com.github.javaparser.ast.expr.LiteralExpr;
 import com.github.javaparser.ast.expr.ObjectCreationExpr;
-import com.github.javaparser.ast.expr.FieldAccessExpr;
-import com.github.javaparser.ast.expr.Expression;
-import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.*;
+import taintanalysis.config.ConfigSnapshot;
+import taintanalysis.config.Source;
+import taintanalysis.utils.AsyncLogger;
+
+import java.util.List;
+
+import static taintanalysis.utils.AsyncLogger.Level.DEBUG;
+import static taintanalysis.utils.AsyncLogger.Level.INFO;
+import static taintanalysis.utils.AsyncLogger.Level.WARN;
 
 /**
  * <h1> LoggingAspect </h1>
  *
  * This class serves as an aspect to manage the application logs.
+ * The events are written by the {@link AsyncLogger}. Every advice is guarded by an {@code if()} pointcut on the level
+ * of its events, so when the level is disabled the advice is not even called, and no value is computed for it.
+ * The advices only log values that the analysis has already computed, and never ask the symbol solver.
+ * The aspect can be left out of the build with the {@code no-logging} Maven profile.
  */
 @Aspect
 public class LoggingAspect {
 
+    private final AsyncLogger logger = AsyncLogger.getInstance();
+
     /**
-     * Print the method name to be analyzed.
+     * Checks whether the warnings are logged.
      *
-     * @param joinPoint the join point
+     * @return boolean
      */
-    @Before("execution(void analyzeMethodCall(MethodCallExpr, Void))")
-    public void logMethodVisit(JoinPoint joinPoint) {
-        Object[] args = joinPoint.getArgs();
-        System.out.println("Method to be analyzed: " + ((MethodCallExpr) args[0]).getName());
+    @Pointcut("if()")
+    public static boolean warnEnabled() {
+        return AsyncLogger.isEnabled(WARN);
     }
 
     /**
-     * Print the attributes of the untrusted source.
+     * Checks whether the visited calls are logged.
      *
-     * @param joinPoint the join point
+     * @return boolean
+     */
+    @Pointcut("if()")
+    public static boolean infoEnabled() {
+        return AsyncLogger.isEnabled(INFO);
+    }
+
+    /**
+     * Checks whether the details of the analysis are logged.
+     *
+     * @return boolean
+     */
+    @Pointcut("if()")
+    public static boolean debugEnabled() {
+        return AsyncLogger.isEnabled(DEBUG);
+    }
+
+    /**
+     * Logs the method name to be analyzed.
+     *
+     * @param methodCall the method call
+     */
+    @Before("execution(void analyzeMethodCall(MethodCallExpr, Void)) && args(methodCall, *) && infoEnabled()")
+    public void logMethodVisit(MethodCallExpr methodCall) {
+        logger.log(INFO, "method.visit", "method", methodCall.getNameAsString());
+    }
+
+    /**
+     * Logs the attributes of the untrusted source, or, in debug, that the method is safe.
+     *
+     * @param className the class name
+     * @param method the method
      * @param result the result
      */
     @AfterReturning(
-            pointcut = "execution(Source getSourceDetailsForResolvedType(String, String, List<String>, boolean))",
+            pointcut = "execution(Source ConfigSnapshot.getSourceDetailsForResolvedType(String, String, List<String>,"
+                    + " boolean)) && args(className, method, *, *) && warnEnabled()",
             returning = "result"
     )
-    public void logUntrustedSourcesAttributes(JoinPoint joinPoint, Source result) {
-        Object[] args = joinPoint.getArgs();
+    public void logUntrustedSourcesAttributes(String className, String method, Source result) {
         if (result != null && !result.isTrusted()) {
-            System.out.println("Warning: Object created with untrusted constructor:");
-            System.out.println("  Class: " + args[0]);
-            System.out.println("  Method: " + args[1]);
-            System.out.println("  Source: " + result.getName());
-            System.out.println("  Trusted: " + result.isTrusted());
-        }
-        else {
-            System.out.println("Safe method.");
+            logger.log(WARN, "source.untrusted", "class", className, "method", method,
+                    "source", result.getName(), "trusted", String.valueOf(result.isTrusted()));
+        } else {
+            logger.log(DEBUG, "method.safe", "class", className, "method", method);
         }
     }
 
     /**
-     * Print the method that is nested in another one.
+     * Logs the method that is nested in another one.
      *
-     * @param joinPoint the join point
+     * @param methodCall the method call
      * @param result the result
      */
     @AfterReturning(
-            pointcut = "execution(boolean isNestedMethodCall(MethodCallExpr))",
+            pointcut = "execution(boolean isNestedMethodCall(MethodCallExpr)) && args(methodCall) && debugEnabled()",
             returning = "result"
     )
-    public void logNestedCall(JoinPoint joinPoint, boolean result) {
-        Object[] args = joinPoint.getArgs();
+    public void logNestedCall(MethodCallExpr methodCall, boolean result) {
         if (result) {
-            System.out.println("The method: " + args[0] + " is an argument of a constructor or another method!");
+            logger.log(DEBUG, "call.nested", "call", methodCall.toString());
         }
     }
 
     /**
-     * Print the type of the parameter enclosed in the expression.
+     * Logs the type of the parameter enclosed in the expression, as added by the method to the parameter types.
      *
      * @param joinPoint the join point
+     * @return the result of the method
+     * @throws Throwable the throwable
      */
-    @Before("execution(void argAsNameExpr(NameExpr, List<String>)) || " +
+    @Around("(execution(void argAsNameExpr(NameExpr, List<String>)) || " +
             "execution(void argAsLiteralExpr(LiteralExpr, List<String>)) ||" +
             "execution(void argAsObjectCreationExpr(ObjectCreationExpr, List<String>, CompilationUnit)) ||" +
             "execution(void argAsMethodCallExpr(MethodCallExpr, CompilationUnit, List<String>)) ||" +
-            "execution(void argAsFieldAccessExpr(FieldAccessExpr, List<String>))")
-    public void logExprArg(JoinPoint joinPoint) {
-        Object[] args = joinPoint.getArgs();
-        System.out.println("Parameter type: " + ((Expression) args[0]).calculateResolvedType().describe());
-    }
-
-    /**
-     * Prints a message to indicate that the method is static.
-     *
-     * @param result the result
-     */
-    @AfterReturning(
-            pointcut = "execution(boolean isStatic())",
-            returning = "result"
-    )
-    public void logStaticMethod(boolean result) {
-        if(result)
-            System.out.println("The method is static.");
-    }
-
-    /**
-     * Print a separator between the analysis of one method and the other one.
-     */
-    @After("execution(void taintanalysis.service.MethodCallVisitor.visit(MethodCallExpr, Void))")
-    public void logAnalysisSeparator() {
-        System.out.println("-------------------------------------------");
+            "execution(void argAsFieldAccessExpr(FieldAccessExpr, List<String>))) && debugEnabled()")
+    public Object logExprArg(ProceedingJoinPoint joinPoint) throws Throwable {
+        List<?> parameterTypes = null;
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof List) {
+                parameterTypes = (List<?>) arg;
+            }
+        }
+        int size = parameterTypes != null ? parameterTypes.size() : 0;
+        Object result = joinPoint.proceed();
+        if (parameterTypes != null && parameterTypes.size() > size) {
+            logger.log(DEBUG, "parameter.type", "expression", joinPoint.getArgs()[0].toString(),
+                    "type", String.valueOf(parameterTypes.get(parameterTypes.size() - 1)));
+        }
+        return result;
     }
 
     /**
-     * Prints the list of user files to be analyzed.
+     * Logs that the invoked method is static.
      *
+     * @param method the method
      * @param result the result
      */
     @AfterReturning(
-            pointcut = "execution(List<String> getSourcesList())",
+            pointcut = "call(boolean isStatic()) && target(method) && within(taintanalysis.service.MethodCallVisitor)"
+                    + " && debugEnabled()",
             returning = "result"
     )
-    public void logSourcesList(List<String> result) {
-        if(!result.isEmpty())
-            System.out.println("sourcesList: " + result);
+    public void logStaticMethod(ResolvedMethodDeclaration method, boolean result) {
+        if (result) {
+            logger.log(DEBUG, "method.static", "method", method.getName());
+        }
     }
 
     /**
-     * Print the contents of ObjectCreationExpr after conversion.
+     * Logs the contents of ObjectCreationExpr after conversion.
      *
      * @param result the result
      */
     @AfterReturning(
-            pointcut = "execution(ObjectCreationExpr taintanalysis..*.convertToObjectCreationExpr(..))",
+            pointcut = "execution(ObjectCreationExpr taintanalysis..*.convertToObjectCreationExpr(..)) && debugEnabled()",
             returning = "result"
     )
     public void afterConversion(ObjectCreationExpr result) {
-        System.out.println("Object created: " + result);
+        logger.log(DEBUG, "object.created", "expression", String.valueOf(result));
     }
 
 }
@@ -5,10 +5,12 @@ import java.util.List;
 /**
  * <h1> Config </h1>
  *
- * This class contains the list of external sources listed in the configuration file.
+ * This class contains the list of external sources and the list of sinks listed in the configuration file.
  */
 public class Config {
 
     public List<Source> sources;
 
+    public List<ConfigClass> sinks;
+
 }
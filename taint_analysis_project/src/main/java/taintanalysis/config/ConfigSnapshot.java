@@ -0,0 +1,219 @@
+package taintanalysis.config;
+
+import org.apache.commons.collections4.CollectionUtils;
+import taintanalysis.utils.AnalysisMetrics;
+import taintanalysis.utils.KeywordMatcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h1> ConfigSnapshot </h1>
+ *
+ * This class contains everything built from one load of the configuration file: the index of the source rules,
+ * the configured methods with their matcher, the sanitizer registry and the sink registry.
+ * It is never modified after construction, so a file analyzed with one snapshot sees a consistent configuration
+ * even if the file is reloaded in the meantime.
+ */
+public final class ConfigSnapshot {
+
+    private final Map<String, Map<String, List<SourceRule>>> rules;
+    private final Set<String> configuredMethods;
+    private final KeywordMatcher sourceMethodMatcher;
+    private final SanitizerRegistry sanitizerRegistry;
+    private final SinkRegistry sinkRegistry;
+
+    private ConfigSnapshot(Map<String, Map<String, List<SourceRule>>> rules, SanitizerRegistry sanitizerRegistry,
+                           SinkRegistry sinkRegistry) {
+        this.rules = rules;
+        this.configuredMethods = collectMethods(rules);
+        this.sourceMethodMatcher = buildSourceMethodMatcher(configuredMethods);
+        this.sanitizerRegistry = sanitizerRegistry;
+        this.sinkRegistry = sinkRegistry;
+    }
+
+    /**
+     * Builds the snapshot of the configuration.
+     *
+     * @param config the config
+     * @return config snapshot
+     */
+    static ConfigSnapshot fromConfig(Config config) {
+        return new ConfigSnapshot(indexRules(insertSources(config)),
+                SanitizerRegistry.fromConfig(config), SinkRegistry.fromConfig(config));
+    }
+
+    /**
+     * Returns the registry of the sanitization methods.
+     *
+     * @return sanitizer registry
+     */
+    public SanitizerRegistry getSanitizerRegistry() {
+        return sanitizerRegistry;
+    }
+
+    /**
+     * Returns the registry of the sinks.
+     *
+     * @return sink registry
+     */
+    public SinkRegistry getSinkRegistry() {
+        return sinkRegistry;
+    }
+
+    /**
+     * It fills the list of sources with those found in the configuration file,
+     * creating a hash map that associates each source with its classes.
+     *
+     * @param config the config
+     * @return map string source
+     */
+    private static Map<String, Source> insertSources(Config config) {
+        Map<String, Source> loadedSources = new HashMap<>();
+        if (config != null && CollectionUtils.isNotEmpty(config.sources)) {
+            for (Source source : config.sources) {
+                for (ConfigClass configClass : source.getClasses()) {
+                    loadedSources.put(configClass.getClassName(), source);
+                }
+            }
+        }
+        return loadedSources;
+    }
+
+    /**
+     * It compiles the sources into an index that associates each class and method with the rules that can match them.
+     * The sources are visited in the same order as the hash map of sources, and each one only once,
+     * so that the first matching rule is the source that a scan of the whole map would find.
+     *
+     * @param loadedSources the loaded sources
+     * @return map string map string list source rule
+     */
+    private static Map<String, Map<String, List<SourceRule>>> indexRules(Map<String, Source> loadedSources) {
+        Map<String, Map<String, List<SourceRule>>> index = new HashMap<>();
+        Set<Source> indexedSources = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Source source : loadedSources.values()) {
+            if (!indexedSources.add(source)) {
+                continue;
+            }
+            for (ConfigClass configClass : source.getClasses()) {
+                if (configClass.getMethods() == null) {
+                    continue;
+                }
+                var rule = new SourceRule(source, configClass);
+                Map<String, List<SourceRule>> methods = index.computeIfAbsent(configClass.getClassName(), key -> new HashMap<>());
+                for (String method : configClass.getMethods()) {
+                    methods.computeIfAbsent(method, key -> new ArrayList<>()).add(rule);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Collects the methods of every class in the index, so that a call can be discarded by its name alone.
+     *
+     * @param index the index
+     * @return set string
+     */
+    private static Set<String> collectMethods(Map<String, Map<String, List<SourceRule>>> index) {
+        Set<String> methods = new HashSet<>();
+        for (Map<String, List<SourceRule>> classMethods : index.values()) {
+            methods.addAll(classMethods.keySet());
+        }
+        return Set.copyOf(methods);
+    }
+
+    /**
+     * Builds the matcher of the names of the configured methods, without the parentheses of the configuration file.
+     *
+     * @param methods the methods
+     * @return keyword matcher
+     */
+    private static KeywordMatcher buildSourceMethodMatcher(Set<String> methods) {
+        Set<String> names = new HashSet<>();
+        for (String method : methods) {
+            names.add(method.endsWith("()") ? method.substring(0, method.length() - 2) : method);
+        }
+        return new KeywordMatcher(names);
+    }
+
+    /**
+     * Checks whether the method, written as in the configuration file (for example "readLine()"),
+     * belongs to any class of the configuration. A method that does not can never match a source,
+     * whatever the type of the object it is invoked on.
+     *
+     * @param currentMethod the current method
+     * @return boolean
+     */
+    public boolean isConfiguredMethod(String currentMethod) {
+        return configuredMethods.contains(currentMethod);
+    }
+
+    /**
+     * Checks whether the content of a user file mentions the name of any configured method.
+     * A file that does not, cannot contain a call to an external source, so it needs neither parsing nor visiting.
+     * The names of the configured classes are not required to be present, because the type of a variable
+     * may not be written in the file, for example when it is declared with var or returned by another method.
+     *
+     * @param content the content
+     * @return boolean
+     */
+    public boolean mayContainSources(byte[] content) {
+        return sourceMethodMatcher.matches(content);
+    }
+
+    /**
+     * Method to obtain untrusted source names.
+     *
+     * @return list string
+     */
+    public List<String> getUntrustedSources() {
+        return List.copyOf(sanitizerRegistry.getSanitizationMethods().keySet());
+    }
+
+    /**
+     * Returns an instance of the source of the configuration file,
+     * whose information matches that of the external source found in the user file.
+     * The lookup uses the index of the rules,
+     * returning the first source, in the order the index was built, whose class has a matching constructor.
+     *
+     * @param className the class name
+     * @param currentMethod the current method
+     * @param parameterContext the parameter context
+     * @param staticMethod the static method
+     * @return source
+     */
+    public Source getSourceDetailsForResolvedType(String className, String currentMethod,
+                                                  List<String> parameterContext, boolean staticMethod) {
+        Source source = findSource(className, currentMethod, parameterContext, staticMethod);
+        AnalysisMetrics.getInstance().countSourceLookup(source != null);
+        return source;
+    }
+
+    private Source findSource(String className, String currentMethod, List<String> parameterContext,
+                              boolean staticMethod) {
+        if (staticMethod) {
+            return null;
+        }
+
+        Map<String, List<SourceRule>> methods = rules.get(className);
+        List<SourceRule> candidates = methods != null ? methods.get(currentMethod) : null;
+        if (candidates == null) {
+            return null;
+        }
+
+        for (SourceRule rule : candidates) {
+            if (rule.matchesConstructor(parameterContext)) {
+                return rule.getSource();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,362 @@
+package taintanalysis.config;
+
+import taintanalysis.error.ErrorException;
+import taintanalysis.utils.AsyncLogger.Level;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static taintanalysis.error.ErrorCode.INVALID_OPTION;
+import static taintanalysis.error.ErrorCode.generateErrorException;
+import static taintanalysis.utils.FileUtils.DESTINATION_BASE_PATH;
+import static taintanalysis.utils.FileUtils.SOURCE_BASE_PATH;
+
+/**
+ * <h1> RunOptions </h1>
+ *
+ * This class contains the options, provided on the command line, that control how the analysis is executed.
+ */
+public class RunOptions {
+
+    private static final String WORKERS_OPTION = "--workers=";
+    private static final String PARALLEL_OPTION = "--parallel";
+    private static final String INCREMENTAL_OPTION = "--incremental";
+    private static final String SOURCE_OPTION = "--source=";
+    private static final String DESTINATION_OPTION = "--destination=";
+    private static final String DATAFLOW_OPTION = "--dataflow";
+    private static final String INCLUDE_OPTION = "--include=";
+    private static final String EXCLUDE_OPTION = "--exclude=";
+    private static final String PIPELINE_OPTION = "--pipeline=";
+    private static final String QUEUE_OPTION = "--queue=";
+    private static final String BOUNDED_MEMORY_OPTION = "--bounded-memory=";
+    private static final String LOG_OPTION = "--log=";
+    private static final String METRICS_OPTION = "--metrics=";
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private int workers = 1;
+    private boolean incremental;
+    private boolean dataflow;
+    private String sourceDirectory = SOURCE_BASE_PATH;
+    private String destinationDirectory = DESTINATION_BASE_PATH;
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+    private int[] stageWorkers;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxLiveTrees;
+    private Level logLevel = Level.WARN;
+    private String metricsFile;
+
+    private RunOptions() {
+    }
+
+    /**
+     * Returns the default options, which analyze the files sequentially.
+     *
+     * @return run options
+     */
+    public static RunOptions defaults() {
+        return new RunOptions();
+    }
+
+    /**
+     * Creates the options from the arguments passed to the program.
+     * <ul>
+     *     <li>{@code --parallel}: analyzes the files using a worker for each available processor.</li>
+     *     <li>{@code --workers=N}: analyzes the files using N workers.</li>
+     *     <li>{@code --incremental}: reuses the results of the previous run for the files that have not changed.</li>
+     *     <li>{@code --source=DIR}: analyzes the files of the directory DIR instead of {@code data/source}.</li>
+     *     <li>{@code --destination=DIR}: writes the analyzed files in the directory DIR instead of {@code data/destination}.</li>
+     *     <li>{@code --dataflow}: sanitizes only the external sources whose data reaches a sink.</li>
+     *     <li>{@code --include=GLOB}: analyzes only the files whose path, relative to the source directory,
+     *     matches the glob; it can be repeated.</li>
+     *     <li>{@code --exclude=GLOB}: skips the files whose relative path matches the glob; it can be repeated.</li>
+     *     <li>{@code --pipeline=R,A,W}: analyzes the files in a pipeline of three stages, reading and parsing,
+     *     analysis, and writing, run respectively by R, A and W workers; it replaces the other execution modes.</li>
+     *     <li>{@code --queue=N}: holds at most N files waiting for each stage of the pipeline (64 by default).</li>
+     *     <li>{@code --bounded-memory=N}: keeps at most N parsed files in memory at the same time, and only
+     *     a compact record of the sanitized calls of the files already written.</li>
+     *     <li>{@code --log=LEVEL}: writes the events of the analysis up to the level, one of {@code off}, {@code warn}
+     *     (the untrusted sources found, by default), {@code info} (also the visited calls) and {@code debug}.</li>
+     *     <li>{@code --metrics=FILE}: writes the metrics of the run to FILE at its end, as Json if the name ends
+     *     with {@code .json}, in the Prometheus text format otherwise.</li>
+     * </ul>
+     *
+     * @param args the input arguments
+     * @return run options
+     * @throws ErrorException the error exception
+     */
+    public static RunOptions fromArgs(String[] args) throws ErrorException {
+        var options = new RunOptions();
+
+        for (String arg : args) {
+            if (arg.equals(PARALLEL_OPTION)) {
+                options.workers = Runtime.getRuntime().availableProcessors();
+            } else if (arg.startsWith(WORKERS_OPTION)) {
+                options.workers = parsePositiveInt(arg.substring(WORKERS_OPTION.length()));
+            } else if (arg.equals(INCREMENTAL_OPTION)) {
+                options.incremental = true;
+            } else if (arg.startsWith(SOURCE_OPTION)) {
+                options.sourceDirectory = parseDirectory(arg.substring(SOURCE_OPTION.length()));
+            } else if (arg.startsWith(DESTINATION_OPTION)) {
+                options.destinationDirectory = parseDirectory(arg.substring(DESTINATION_OPTION.length()));
+            } else if (arg.equals(DATAFLOW_OPTION)) {
+                options.dataflow = true;
+            } else if (arg.startsWith(INCLUDE_OPTION)) {
+                options.includes.add(parseGlob(arg.substring(INCLUDE_OPTION.length())));
+            } else if (arg.startsWith(EXCLUDE_OPTION)) {
+                options.excludes.add(parseGlob(arg.substring(EXCLUDE_OPTION.length())));
+            } else if (arg.startsWith(PIPELINE_OPTION)) {
+                options.stageWorkers = parseStageWorkers(arg.substring(PIPELINE_OPTION.length()));
+            } else if (arg.startsWith(QUEUE_OPTION)) {
+                options.queueCapacity = parsePositiveInt(arg.substring(QUEUE_OPTION.length()));
+            } else if (arg.startsWith(BOUNDED_MEMORY_OPTION)) {
+                options.maxLiveTrees = parsePositiveInt(arg.substring(BOUNDED_MEMORY_OPTION.length()));
+            } else if (arg.startsWith(LOG_OPTION)) {
+                options.logLevel = parseLevel(arg.substring(LOG_OPTION.length()));
+            } else if (arg.startsWith(METRICS_OPTION)) {
+                options.metricsFile = parseFile(arg.substring(METRICS_OPTION.length()));
+            } else {
+                throw generateErrorException(INVALID_OPTION);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Converts the value of an option into a positive integer.
+     *
+     * @param value the value
+     * @return int
+     * @throws ErrorException the error exception
+     */
+    private static int parsePositiveInt(String value) throws ErrorException {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // The check below reports the invalid value.
+        }
+        throw generateErrorException(INVALID_OPTION);
+    }
+
+    /**
+     * Converts the value of the log option into a level.
+     *
+     * @param value the value
+     * @return level
+     * @throws ErrorException the error exception
+     */
+    private static Level parseLevel(String value) throws ErrorException {
+        for (Level level : Level.values()) {
+            if (level.name().equalsIgnoreCase(value)) {
+                return level;
+            }
+        }
+        throw generateErrorException(INVALID_OPTION);
+    }
+
+    /**
+     * Checks that the value of an option names a directory.
+     *
+     * @param value the value
+     * @return string
+     * @throws ErrorException the error exception
+     */
+    private static String parseDirectory(String value) throws ErrorException {
+        if (value.isBlank()) {
+            throw generateErrorException(INVALID_OPTION);
+        }
+        return value;
+    }
+
+    /**
+     * Checks that the value of an option names a file, which may not exist yet but cannot be a directory.
+     *
+     * @param value the value
+     * @return string
+     * @throws ErrorException the error exception
+     */
+    private static String parseFile(String value) throws ErrorException {
+        if (value.isBlank() || Files.isDirectory(Paths.get(value))) {
+            throw generateErrorException(INVALID_OPTION);
+        }
+        return value;
+    }
+
+    /**
+     * Converts the value of the pipeline option into the number of workers of each of its three stages.
+     *
+     * @param value the value
+     * @return int array
+     * @throws ErrorException the error exception
+     */
+    private static int[] parseStageWorkers(String value) throws ErrorException {
+        String[] values = value.split(",");
+        if (values.length != 3) {
+            throw generateErrorException(INVALID_OPTION);
+        }
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = parsePositiveInt(values[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the value of an option is a valid glob pattern.
+     *
+     * @param value the value
+     * @return string
+     * @throws ErrorException the error exception
+     */
+    private static String parseGlob(String value) throws ErrorException {
+        try {
+            FileSystems.getDefault().getPathMatcher("glob:" + value);
+            return value;
+        } catch (IllegalArgumentException e) {
+            throw generateErrorException(INVALID_OPTION);
+        }
+    }
+
+    /**
+     * Returns the number of workers used to analyze the files.
+     *
+     * @return int
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Checks whether the files are analyzed by more than one worker.
+     *
+     * @return boolean
+     */
+    public boolean isParallel() {
+        return workers > 1;
+    }
+
+    /**
+     * Checks whether the files are analyzed by a pipeline of stages.
+     *
+     * @return boolean
+     */
+    public boolean isPipeline() {
+        return stageWorkers != null;
+    }
+
+    /**
+     * Returns the number of workers of each stage of the pipeline: reading and parsing, analysis, writing.
+     *
+     * @return int array
+     */
+    public int[] getStageWorkers() {
+        return stageWorkers.clone();
+    }
+
+    /**
+     * Returns the maximum number of files waiting for each stage of the pipeline.
+     *
+     * @return int
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Checks whether the number of parsed files held in memory is limited.
+     *
+     * @return boolean
+     */
+    public boolean isBoundedMemory() {
+        return maxLiveTrees > 0;
+    }
+
+    /**
+     * Returns the maximum number of parsed files held in memory at the same time, in bounded-memory mode.
+     *
+     * @return int
+     */
+    public int getMaxLiveTrees() {
+        return maxLiveTrees;
+    }
+
+    /**
+     * Returns the most detailed level of the events written in the log.
+     *
+     * @return level
+     */
+    public Level getLogLevel() {
+        return logLevel;
+    }
+
+    /**
+     * Returns the file the metrics of the run are written to, or null if they are not exported.
+     *
+     * @return string
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Checks whether the results of the previous run are reused for the files that have not changed.
+     *
+     * @return boolean
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Checks whether the data of each external source is followed through the method that reads it,
+     * so that only the sources whose data reaches a sink are sanitized.
+     *
+     * @return boolean
+     */
+    public boolean isDataflow() {
+        return dataflow;
+    }
+
+    /**
+     * Returns the directory containing the files to be analyzed.
+     *
+     * @return string
+     */
+    public String getSourceDirectory() {
+        return sourceDirectory;
+    }
+
+    /**
+     * Returns the directory in which the analyzed files are written.
+     *
+     * @return string
+     */
+    public String getDestinationDirectory() {
+        return destinationDirectory;
+    }
+
+    /**
+     * Returns the glob patterns of the files to be analyzed; if there are none, every java file is analyzed.
+     *
+     * @return list string
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Returns the glob patterns of the files to be skipped.
+     *
+     * @return list string
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+}
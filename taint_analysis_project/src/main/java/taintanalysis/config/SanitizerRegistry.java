@@ -0,0 +1,77 @@
+package taintanalysis.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1> SanitizerRegistry </h1>
+ *
+ * This class maps the name of each untrusted external source to the sanitization method to be applied to its data.
+ * It is built once from the loaded configuration and never modified.
+ */
+public class SanitizerRegistry {
+
+    private static final String SANITIZER_CLASS = "InputSanitizer.";
+    private static final String SANITIZER_PREFIX = "sanitize";
+
+    private final Map<String, String> sanitizationMethods;
+
+    private SanitizerRegistry(Map<String, String> sanitizationMethods) {
+        // The sources keep the order of the configuration file.
+        this.sanitizationMethods = Collections.unmodifiableMap(new LinkedHashMap<>(sanitizationMethods));
+    }
+
+    /**
+     * Creates the registry from the untrusted sources of the configuration.
+     *
+     * @param config the config
+     * @return sanitizer registry
+     */
+    public static SanitizerRegistry fromConfig(Config config) {
+        Map<String, String> sanitizationMethods = new LinkedHashMap<>();
+        if (config != null && config.sources != null) {
+            for (Source source : config.sources) {
+                if (!source.isTrusted()) {
+                    sanitizationMethods.put(source.getName(),
+                            SANITIZER_CLASS + SANITIZER_PREFIX + capitalizeFirstLetter(source.getName()));
+                }
+            }
+        }
+        return new SanitizerRegistry(sanitizationMethods);
+    }
+
+    /**
+     * If the input string is not null, set its first letter to uppercase.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String capitalizeFirstLetter(String input) {
+        if (input == null || input.isEmpty()) {
+            return input;
+        }
+        return input.substring(0, 1).toUpperCase() + input.substring(1);
+    }
+
+    /**
+     * Returns the sanitization method, qualified with its class, for the external source.
+     *
+     * @param source the source
+     * @return string, or null if the source is not untrusted
+     */
+    public String getSanitizer(String source) {
+        return sanitizationMethods.get(source);
+    }
+
+    /**
+     * Returns the mapping between the untrusted sources and their sanitization methods,
+     * in the order of the configuration.
+     *
+     * @return map string string
+     */
+    public Map<String, String> getSanitizationMethods() {
+        return sanitizationMethods;
+    }
+
+}
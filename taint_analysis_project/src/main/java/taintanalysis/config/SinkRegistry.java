@@ -0,0 +1,116 @@
+package taintanalysis.config;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h1> SinkRegistry </h1>
+ *
+ * This class maps each class listed in the sinks of the configuration file to the methods and the constructors
+ * through which untrusted data must not flow without being sanitized.
+ * A constructor is described, as in the sources, by the types of its parameters: their qualified names without
+ * type arguments, with the variable arguments written as an array (for example "java.lang.String[]").
+ * It is built once from the loaded configuration and never modified.
+ */
+public class SinkRegistry {
+
+    private final Map<String, Set<String>> sinkMethods;
+    private final Set<String> methodNames;
+    private final Map<String, Set<List<String>>> sinkConstructors;
+    private final Set<String> constructorClassNames;
+
+    private SinkRegistry(Map<String, Set<String>> sinkMethods, Set<String> methodNames,
+                         Map<String, Set<List<String>>> sinkConstructors, Set<String> constructorClassNames) {
+        this.sinkMethods = Map.copyOf(sinkMethods);
+        this.methodNames = Set.copyOf(methodNames);
+        this.sinkConstructors = Map.copyOf(sinkConstructors);
+        this.constructorClassNames = Set.copyOf(constructorClassNames);
+    }
+
+    /**
+     * Creates the registry from the sinks of the configuration.
+     *
+     * @param config the config
+     * @return sink registry
+     */
+    public static SinkRegistry fromConfig(Config config) {
+        Map<String, Set<String>> sinkMethods = new HashMap<>();
+        Set<String> methodNames = new HashSet<>();
+        Map<String, Set<List<String>>> sinkConstructors = new HashMap<>();
+        Set<String> constructorClassNames = new HashSet<>();
+        if (config != null && config.sinks != null) {
+            for (ConfigClass sink : config.sinks) {
+                if (sink.getMethods() != null) {
+                    sinkMethods.computeIfAbsent(sink.getClassName(), key -> new HashSet<>()).addAll(sink.getMethods());
+                    methodNames.addAll(sink.getMethods());
+                }
+                if (sink.getConstructors() != null && !sink.getConstructors().isEmpty()) {
+                    Set<List<String>> signatures = sinkConstructors.computeIfAbsent(sink.getClassName(),
+                            key -> new HashSet<>());
+                    for (ConstructorInfo constructor : sink.getConstructors()) {
+                        List<String> parameterTypes = constructor.getParameterTypes();
+                        signatures.add(parameterTypes != null ? List.copyOf(parameterTypes) : List.of());
+                    }
+                    constructorClassNames.add(simpleName(sink.getClassName()));
+                }
+            }
+        }
+        sinkMethods.replaceAll((className, methods) -> Set.copyOf(methods));
+        sinkConstructors.replaceAll((className, signatures) -> Set.copyOf(signatures));
+        return new SinkRegistry(sinkMethods, methodNames, sinkConstructors, constructorClassNames);
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Checks whether a method with this name, written as in the configuration file (for example "println()"),
+     * is a sink of any class.
+     *
+     * @param currentMethod the current method
+     * @return boolean
+     */
+    public boolean isSinkMethod(String currentMethod) {
+        return methodNames.contains(currentMethod);
+    }
+
+    /**
+     * Checks whether the method of the class is a sink.
+     *
+     * @param className the class name
+     * @param currentMethod the current method
+     * @return boolean
+     */
+    public boolean isSink(String className, String currentMethod) {
+        Set<String> methods = sinkMethods.get(className);
+        return methods != null && methods.contains(currentMethod);
+    }
+
+    /**
+     * Checks whether a class with this simple name, as written in a creation expression, has constructors
+     * among the sinks.
+     *
+     * @param simpleName the simple name
+     * @return boolean
+     */
+    public boolean hasSinkConstructors(String simpleName) {
+        return constructorClassNames.contains(simpleName);
+    }
+
+    /**
+     * Checks whether the constructor of the class with the given parameter types is a sink.
+     *
+     * @param className the class name
+     * @param parameterTypes the parameter types
+     * @return boolean
+     */
+    public boolean isSinkConstructor(String className, List<String> parameterTypes) {
+        Set<List<String>> signatures = sinkConstructors.get(className);
+        return signatures != null && signatures.contains(parameterTypes);
+    }
+
+}
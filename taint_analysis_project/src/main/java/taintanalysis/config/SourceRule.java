@@ -0,0 +1,56 @@
+package taintanalysis.config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <h1> SourceRule </h1>
+ *
+ * This class contains the information of a class of the configuration file that is needed to recognize one of its methods:
+ * the external source it belongs to and the parameter types of its constructors,
+ * stored in a hash set so that the constructor of an instance can be checked with a single lookup.
+ */
+public class SourceRule {
+    private final Source source;
+    private final boolean anyConstructor;
+    private final Set<List<String>> constructorSignatures = new HashSet<>();
+
+    /**
+     * Instantiates a new rule for a class of the external source.
+     *
+     * @param source the source
+     * @param configClass the config class
+     */
+    SourceRule(Source source, ConfigClass configClass) {
+        this.source = source;
+        List<ConstructorInfo> constructors = configClass.getConstructors();
+        this.anyConstructor = constructors == null || constructors.isEmpty();
+        if (!anyConstructor) {
+            for (ConstructorInfo constructor : constructors) {
+                constructorSignatures.add(List.copyOf(constructor.getParameterTypes()));
+            }
+        }
+    }
+
+    /**
+     * Returns the external source the rule belongs to.
+     *
+     * @return source
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Verify that the parameters passed to the constructor match those of the class:
+     * a class without constructors in the configuration file matches any of them.
+     *
+     * @param parameterContext the parameter context
+     * @return boolean
+     */
+    public boolean matchesConstructor(List<String> parameterContext) {
+        return anyConstructor || constructorSignatures.contains(parameterContext);
+    }
+
+}
@@ -0,0 +1,336 @@
+package taintanalysis.dataflow;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.stmt.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <h1> ControlFlowGraph </h1>
+ *
+ * This class represents the control flow of the body of a method, built from its JavaParser tree.
+ * Each node holds the element executed there: an expression (an expression statement, a condition,
+ * an initialization or an update of a loop), a statement that is handled as a whole (return, throw,
+ * for-each, catch clause, local class), or nothing for the entry and the head of do-while and infinite loops.
+ * <p>
+ * Node 0 is the entry, and nodes are numbered in the order the statements appear, so visiting them in ascending
+ * order follows the flow except for the back edges of loops. Exceptions are approximated: a catch clause and
+ * a finally block can be reached from any node of the try block, and the nodes after a finally block are reached
+ * from every path through it. The bodies of lambdas and of local and anonymous classes are not part of the graph.
+ */
+public class ControlFlowGraph {
+
+    private final List<Node> elements = new ArrayList<>();
+    private final List<List<Integer>> successors = new ArrayList<>();
+    private final Deque<JumpScope> scopes = new ArrayDeque<>();
+    private int[][] predecessors;
+
+    private ControlFlowGraph() {
+    }
+
+    /**
+     * Builds the graph of the body of a method, a constructor, an initializer or a lambda.
+     *
+     * @param body the body
+     * @return control flow graph
+     */
+    public static ControlFlowGraph of(Statement body) {
+        var graph = new ControlFlowGraph();
+        int entry = graph.add(null, List.of());
+        graph.statement(body, List.of(entry), null);
+        graph.linkPredecessors();
+        return graph;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return int
+     */
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Returns the element executed in the node, or null if the node only joins the flow.
+     *
+     * @param node the node
+     * @return node
+     */
+    public Node getElement(int node) {
+        return elements.get(node);
+    }
+
+    /**
+     * Returns the nodes from which the flow can reach the node.
+     *
+     * @param node the node
+     * @return int array
+     */
+    public int[] getPredecessors(int node) {
+        return predecessors[node];
+    }
+
+    /**
+     * Returns the nodes that the flow can reach from the node.
+     *
+     * @param node the node
+     * @return list integer
+     */
+    public List<Integer> getSuccessors(int node) {
+        return successors.get(node);
+    }
+
+    /**
+     * Adds the nodes of the statement to the graph.
+     *
+     * @param statement the statement
+     * @param in the nodes from which the flow enters the statement
+     * @param label the label of the statement, or null
+     * @return the nodes from which the flow leaves the statement normally
+     */
+    private List<Integer> statement(Statement statement, List<Integer> in, String label) {
+        if (statement instanceof BlockStmt) {
+            return block((BlockStmt) statement, in, label);
+        } else if (statement instanceof LabeledStmt) {
+            LabeledStmt labeled = (LabeledStmt) statement;
+            return statement(labeled.getStatement(), in, labeled.getLabel().asString());
+        } else if (statement instanceof ExpressionStmt) {
+            return List.of(add(((ExpressionStmt) statement).getExpression(), in));
+        } else if (statement instanceof IfStmt) {
+            IfStmt ifStmt = (IfStmt) statement;
+            int condition = add(ifStmt.getCondition(), in);
+            List<Integer> out = new ArrayList<>(statement(ifStmt.getThenStmt(), List.of(condition), null));
+            out.addAll(ifStmt.getElseStmt()
+                    .map(elseStmt -> statement(elseStmt, List.of(condition), null))
+                    .orElse(List.of(condition)));
+            return out;
+        } else if (statement instanceof WhileStmt) {
+            WhileStmt whileStmt = (WhileStmt) statement;
+            int condition = add(whileStmt.getCondition(), in);
+            return loop(label, List.of(condition), whileStmt.getBody(), condition, List.of(), true);
+        } else if (statement instanceof DoStmt) {
+            DoStmt doStmt = (DoStmt) statement;
+            int head = add(null, in);
+            JumpScope scope = push(label, true);
+            List<Integer> end = new ArrayList<>(statement(doStmt.getBody(), List.of(head), null));
+            end.addAll(scope.continues);
+            int condition = add(doStmt.getCondition(), end);
+            successors.get(condition).add(head);
+            scopes.pop();
+            return join(List.of(condition), scope.breaks);
+        } else if (statement instanceof ForStmt) {
+            ForStmt forStmt = (ForStmt) statement;
+            List<Integer> current = in;
+            for (Expression initialization : forStmt.getInitialization()) {
+                current = List.of(add(initialization, current));
+            }
+            Optional<Expression> compare = forStmt.getCompare();
+            int head = add(compare.orElse(null), current);
+            return loop(label, List.of(head), forStmt.getBody(), head, forStmt.getUpdate(), compare.isPresent());
+        } else if (statement instanceof ForEachStmt) {
+            ForEachStmt forEachStmt = (ForEachStmt) statement;
+            int head = add(forEachStmt, in);
+            return loop(label, List.of(head), forEachStmt.getBody(), head, List.of(), true);
+        } else if (statement instanceof SwitchStmt) {
+            return switchStatement((SwitchStmt) statement, in, label);
+        } else if (statement instanceof TryStmt) {
+            return tryStatement((TryStmt) statement, in);
+        } else if (statement instanceof SynchronizedStmt) {
+            SynchronizedStmt synchronizedStmt = (SynchronizedStmt) statement;
+            int lock = add(synchronizedStmt.getExpression(), in);
+            return statement(synchronizedStmt.getBody(), List.of(lock), null);
+        } else if (statement instanceof BreakStmt) {
+            BreakStmt breakStmt = (BreakStmt) statement;
+            findScope(breakStmt.getLabel().map(name -> name.asString()).orElse(null), false)
+                    .ifPresent(scope -> scope.breaks.addAll(in));
+            return List.of();
+        } else if (statement instanceof ContinueStmt) {
+            ContinueStmt continueStmt = (ContinueStmt) statement;
+            findScope(continueStmt.getLabel().map(name -> name.asString()).orElse(null), true)
+                    .ifPresent(scope -> scope.continues.addAll(in));
+            return List.of();
+        } else if (statement instanceof ReturnStmt || statement instanceof ThrowStmt) {
+            add(statement, in);
+            return List.of();
+        } else if (statement instanceof EmptyStmt) {
+            return in;
+        }
+        return List.of(add(statement, in));
+    }
+
+    private List<Integer> block(BlockStmt block, List<Integer> in, String label) {
+        JumpScope scope = label != null ? push(label, false) : null;
+        List<Integer> current = in;
+        for (Statement statement : block.getStatements()) {
+            current = statement(statement, current, null);
+        }
+        if (scope == null) {
+            return current;
+        }
+        scopes.pop();
+        return join(current, scope.breaks);
+    }
+
+    /**
+     * Adds the body of a loop whose head has already been added, followed by its updates and the back edge.
+     *
+     * @param label the label
+     * @param bodyIn the nodes from which the flow enters the body
+     * @param body the body
+     * @param head the head, evaluated at each iteration
+     * @param updates the updates of a for loop
+     * @param exitsFromHead whether the loop ends when its head is evaluated
+     * @return the nodes from which the flow leaves the loop
+     */
+    private List<Integer> loop(String label, List<Integer> bodyIn, Statement body, int head,
+                               List<Expression> updates, boolean exitsFromHead) {
+        JumpScope scope = push(label, true);
+        List<Integer> end = new ArrayList<>(statement(body, bodyIn, null));
+        end.addAll(scope.continues);
+        for (Expression update : updates) {
+            end = new ArrayList<>(List.of(add(update, end)));
+        }
+        for (int node : end) {
+            successors.get(node).add(head);
+        }
+        scopes.pop();
+        return join(exitsFromHead ? List.of(head) : List.of(), scope.breaks);
+    }
+
+    private List<Integer> switchStatement(SwitchStmt switchStmt, List<Integer> in, String label) {
+        int selector = add(switchStmt.getSelector(), in);
+        JumpScope scope = push(label, false);
+        scope.breakable = true;
+        List<Integer> out = new ArrayList<>();
+        List<Integer> fallthrough = List.of();
+        boolean hasDefault = false;
+        for (SwitchEntry entry : switchStmt.getEntries()) {
+            hasDefault |= entry.getLabels().isEmpty();
+            List<Integer> current = join(List.of(selector), fallthrough);
+            for (Statement statement : entry.getStatements()) {
+                current = statement(statement, current, null);
+            }
+            if (entry.getType() == SwitchEntry.Type.STATEMENT_GROUP) {
+                fallthrough = current;
+            } else {
+                out.addAll(current);
+                fallthrough = List.of();
+            }
+        }
+        scopes.pop();
+        out.addAll(fallthrough);
+        out.addAll(scope.breaks);
+        if (!hasDefault) {
+            out.add(selector);
+        }
+        return out;
+    }
+
+    private List<Integer> tryStatement(TryStmt tryStmt, List<Integer> in) {
+        int first = size();
+        List<Integer> current = in;
+        for (Expression resource : tryStmt.getResources()) {
+            current = List.of(add(resource, current));
+        }
+        List<Integer> out = new ArrayList<>(statement(tryStmt.getTryBlock(), current, null));
+
+        List<Integer> throwing = join(in, range(first, size()));
+        for (CatchClause catchClause : tryStmt.getCatchClauses()) {
+            int parameter = add(catchClause, throwing);
+            out.addAll(statement(catchClause.getBody(), List.of(parameter), null));
+        }
+
+        if (tryStmt.getFinallyBlock().isPresent()) {
+            return statement(tryStmt.getFinallyBlock().get(), join(out, range(first, size())), null);
+        }
+        return out;
+    }
+
+    private int add(Node element, List<Integer> in) {
+        int node = elements.size();
+        elements.add(element);
+        successors.add(new ArrayList<>());
+        for (int predecessor : in) {
+            successors.get(predecessor).add(node);
+        }
+        return node;
+    }
+
+    private JumpScope push(String label, boolean loop) {
+        JumpScope scope = new JumpScope(label, loop);
+        scopes.push(scope);
+        return scope;
+    }
+
+    /**
+     * Finds the statement targeted by a break or a continue: the one with the label if there is one,
+     * otherwise the innermost loop, or for a break also the innermost switch.
+     *
+     * @param label the label
+     * @param continueTarget whether the target of a continue is searched
+     * @return optional jump scope
+     */
+    private Optional<JumpScope> findScope(String label, boolean continueTarget) {
+        for (JumpScope scope : scopes) {
+            if (label != null ? label.equals(scope.label)
+                    : scope.loop || (!continueTarget && scope.breakable)) {
+                return Optional.of(scope);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void linkPredecessors() {
+        List<List<Integer>> incoming = new ArrayList<>();
+        for (int node = 0; node < size(); node++) {
+            incoming.add(new ArrayList<>());
+        }
+        for (int node = 0; node < size(); node++) {
+            for (int successor : successors.get(node)) {
+                incoming.get(successor).add(node);
+            }
+        }
+        predecessors = new int[size()][];
+        for (int node = 0; node < size(); node++) {
+            predecessors[node] = incoming.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private static List<Integer> join(List<Integer> first, List<Integer> second) {
+        List<Integer> result = new ArrayList<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> result = new ArrayList<>();
+        for (int node = from; node < to; node++) {
+            result.add(node);
+        }
+        return result;
+    }
+
+    /**
+     * A statement that can be the target of a break or a continue, with the nodes that jump to it.
+     */
+    private static class JumpScope {
+        private final String label;
+        private final boolean loop;
+        private boolean breakable;
+        private final List<Integer> breaks = new ArrayList<>();
+        private final List<Integer> continues = new ArrayList<>();
+
+        private JumpScope(String label, boolean loop) {
+            this.label = label;
+            this.loop = loop;
+            this.breakable = loop;
+        }
+    }
+
+}
@@ -0,0 +1,342 @@
+package taintanalysis.dataflow;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.MethodReferenceExpr;
+import taintanalysis.utils.SymbolResolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <h1> InterproceduralAnalysis </h1>
+ *
+ * This class follows the data of the external sources of a CompilationUnit through the calls between its methods.
+ * Each body is analyzed by a {@link TaintAnalysis}, and a call to a method of the file that cannot be overridden
+ * (private, static or final, or of a final class or a record) is analyzed with the {@link MethodSummary} of the method.
+ * The summaries are computed bottom-up over the strongly connected components of the call graph, so the summaries of
+ * the methods called by a body are known before it is analyzed, and the methods of a recursive cycle are analyzed
+ * again until their summaries no longer change. Every other body is analyzed once, whatever the number of its callers.
+ * <p>
+ * The components whose callees have all been summarized are independent of each other: when the analysis runs
+ * in a worker of a fork-join pool, as in parallel mode, they are analyzed as tasks of that pool.
+ * <p>
+ * Calls without a summary, to methods that can be overridden or to methods of other files, which the symbol solver
+ * does not resolve, are analyzed by {@link TaintAnalysis} as code it cannot follow: unless the method is declared by
+ * the JDK, the data passed to it is considered to leave the method.
+ * The value returned by a method is followed into its callers only if the method is private and all its calls
+ * are known, that is, every call with its name is resolved and part of a body, and no method reference uses the name.
+ */
+public class InterproceduralAnalysis {
+
+    private final CompilationUnit cu;
+    private final SinkMatcher sinks;
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Node, Integer> ids = new IdentityHashMap<>();
+    private final List<List<MethodCallExpr>> sources = new ArrayList<>();
+    private final List<Set<Integer>> callees = new ArrayList<>();
+    private final Map<MethodCallExpr, Integer> targets = new IdentityHashMap<>();
+    private final List<Integer> roots = new ArrayList<>();
+    private final Set<String> openNames = new HashSet<>();
+    private boolean[] summarized;
+    private MethodSummary[] summaries;
+    private List<List<MethodCallExpr>> reachingSinks;
+
+    /**
+     * Instantiates the analysis of the sources called in the CompilationUnit.
+     *
+     * @param cu the cu
+     * @param sources the sources
+     * @param sinks the sinks
+     */
+    public InterproceduralAnalysis(CompilationUnit cu, List<MethodCallExpr> sources, SinkMatcher sinks) {
+        this.cu = cu;
+        this.sinks = sinks;
+        for (MethodCallExpr source : sources) {
+            TaintAnalysis.ownerOf(source).ifPresent(owner -> {
+                int id = idOf(owner);
+                if (this.sources.get(id).isEmpty()) {
+                    roots.add(id);
+                }
+                this.sources.get(id).add(source);
+            });
+        }
+    }
+
+    /**
+     * Returns the sources whose data reaches a sink, in their own body or in one of the callers it is returned to.
+     * Sources outside any body are not analyzed.
+     *
+     * @return set method call expr
+     */
+    public Set<MethodCallExpr> findSourcesReachingSinks() {
+        Set<MethodCallExpr> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (roots.isEmpty()) {
+            return result;
+        }
+        buildCallGraph();
+        summarized = new boolean[nodes.size()];
+        targets.values().forEach(callee -> summarized[callee] = true);
+        summaries = new MethodSummary[nodes.size()];
+        reachingSinks = new ArrayList<>(Collections.nCopies(nodes.size(), List.of()));
+
+        for (List<List<Integer>> wave : schedule(stronglyConnectedComponents())) {
+            if (wave.size() > 1 && ForkJoinTask.inForkJoinPool()) {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (List<Integer> component : wave) {
+                    tasks.add(ForkJoinTask.adapt(() -> analyzeComponent(component)));
+                }
+                ForkJoinTask.invokeAll(tasks);
+            } else {
+                wave.forEach(this::analyzeComponent);
+            }
+        }
+        reachingSinks.forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * Links each body to the methods it calls that can be summarized. Only calls with the name of a method declared
+     * in the file are resolved. The bodies calling a method whose returned value is followed into its callers are
+     * roots of the analysis, as are the bodies containing sources.
+     */
+    private void buildCallGraph() {
+        Map<MethodDeclaration, Boolean> methods = new IdentityHashMap<>();
+        Set<String> methodNames = new HashSet<>();
+        List<MethodCallExpr> calls = new ArrayList<>();
+        collect(cu, methods, calls);
+        methods.keySet().forEach(method -> methodNames.add(method.getNameAsString()));
+
+        List<MethodCallExpr> closedCalls = new ArrayList<>();
+        for (MethodCallExpr call : calls) {
+            String name = call.getNameAsString();
+            if (!methodNames.contains(name)) {
+                continue;
+            }
+            Optional<Node> owner = TaintAnalysis.ownerOf(call);
+            Optional<MethodDeclaration> target = resolveDeclaration(call).filter(methods::containsKey);
+            if (owner.isEmpty() || target.isEmpty()) {
+                openNames.add(name);
+            } else if (methods.get(target.get())) {
+                int callee = idOf(target.get());
+                callees.get(idOf(owner.get())).add(callee);
+                targets.put(call, callee);
+                if (target.get().isPrivate()) {
+                    closedCalls.add(call);
+                }
+            }
+        }
+        for (MethodCallExpr call : closedCalls) {
+            if (returnIsFollowed(nodes.get(targets.get(call)))) {
+                int caller = idOf(TaintAnalysis.ownerOf(call).get());
+                if (!roots.contains(caller)) {
+                    roots.add(caller);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the methods with a body, the calls and the names of the method references of the node and its descendants.
+     *
+     * @param node the node
+     * @param methods the methods, with whether they cannot be overridden
+     * @param calls the calls
+     */
+    private void collect(Node node, Map<MethodDeclaration, Boolean> methods, List<MethodCallExpr> calls) {
+        if (node instanceof MethodDeclaration && ((MethodDeclaration) node).getBody().isPresent()) {
+            methods.put((MethodDeclaration) node, cannotBeOverridden((MethodDeclaration) node));
+        } else if (node instanceof MethodCallExpr) {
+            calls.add((MethodCallExpr) node);
+        } else if (node instanceof MethodReferenceExpr) {
+            openNames.add(((MethodReferenceExpr) node).getIdentifier());
+        }
+        for (Node child : node.getChildNodes()) {
+            collect(child, methods, calls);
+        }
+    }
+
+    /**
+     * Returns the strongly connected components of the graph reachable from the roots, computed with Tarjan's
+     * algorithm, which completes a component only after all the components it calls.
+     *
+     * @return list list integer
+     */
+    private List<List<Integer>> stronglyConnectedComponents() {
+        var tarjan = new Tarjan();
+        for (int root : roots) {
+            if (tarjan.index[root] < 0) {
+                tarjan.visit(root);
+            }
+        }
+        return tarjan.components;
+    }
+
+    /**
+     * Groups the components in waves: a component is in the wave after the last wave containing one of its callees.
+     *
+     * @param components the components, each after the components it calls
+     * @return list list list integer
+     */
+    private List<List<List<Integer>>> schedule(List<List<Integer>> components) {
+        int[] waveOf = new int[nodes.size()];
+        List<List<List<Integer>>> waves = new ArrayList<>();
+        for (List<Integer> component : components) {
+            int wave = 0;
+            for (int id : component) {
+                for (int callee : callees.get(id)) {
+                    if (!component.contains(callee)) {
+                        wave = Math.max(wave, waveOf[callee] + 1);
+                    }
+                }
+            }
+            for (int id : component) {
+                waveOf[id] = wave;
+            }
+            if (wave == waves.size()) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(component);
+        }
+        return waves;
+    }
+
+    /**
+     * Analyzes the bodies of a component. The methods of a recursive component start from summaries without flows,
+     * and are analyzed again until none of their summaries grows.
+     *
+     * @param component the component
+     */
+    private void analyzeComponent(List<Integer> component) {
+        boolean recursive = component.size() > 1 || callees.get(component.get(0)).contains(component.get(0));
+        if (recursive) {
+            for (int id : component) {
+                if (summarized[id]) {
+                    summaries[id] = MethodSummary.empty(((MethodDeclaration) nodes.get(id)).getParameters().size());
+                }
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int id : component) {
+                Node owner = nodes.get(id);
+                var analysis = new TaintAnalysis(owner, sources.get(id), sinks, this::summaryOf,
+                        summarized[id], !returnIsFollowed(owner));
+                reachingSinks.set(id, analysis.findSourcesReachingSinks());
+                if (summarized[id]) {
+                    MethodSummary summary = analysis.getSummary();
+                    changed |= recursive && !summary.hasSameFlows(summaries[id]);
+                    summaries[id] = summary;
+                }
+            }
+        }
+    }
+
+    private MethodSummary summaryOf(MethodCallExpr call) {
+        Integer callee = targets.get(call);
+        return callee != null ? summaries[callee] : null;
+    }
+
+    private boolean returnIsFollowed(Node owner) {
+        return owner instanceof MethodDeclaration && ((MethodDeclaration) owner).isPrivate()
+                && !openNames.contains(((MethodDeclaration) owner).getNameAsString());
+    }
+
+    private int idOf(Node node) {
+        Integer id = ids.get(node);
+        if (id == null) {
+            id = nodes.size();
+            ids.put(node, id);
+            nodes.add(node);
+            sources.add(new ArrayList<>());
+            callees.add(new HashSet<>());
+        }
+        return id;
+    }
+
+    /**
+     * Returns the declaration of the invoked method, if it is part of a tree.
+     *
+     * @param call the call
+     * @return optional method declaration
+     */
+    private static Optional<MethodDeclaration> resolveDeclaration(MethodCallExpr call) {
+        try {
+            return SymbolResolution.methodOf(call).toAst(MethodDeclaration.class);
+        } catch (RuntimeException e) {
+            // The symbol solver reports unresolvable calls with several unchecked exceptions.
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks whether every call resolved to the method executes its body.
+     *
+     * @param method the method
+     * @return boolean
+     */
+    private static boolean cannotBeOverridden(MethodDeclaration method) {
+        if (method.isPrivate() || method.isStatic() || method.isFinal()) {
+            return true;
+        }
+        Node type = method.getParentNode().orElse(null);
+        return type instanceof RecordDeclaration
+                || (type instanceof ClassOrInterfaceDeclaration && ((ClassOrInterfaceDeclaration) type).isFinal());
+    }
+
+    /**
+     * Tarjan's algorithm over the bodies of the call graph.
+     */
+    private class Tarjan {
+        private final int[] index = new int[nodes.size()];
+        private final int[] lowLink = new int[nodes.size()];
+        private final boolean[] onStack = new boolean[nodes.size()];
+        private final List<Integer> stack = new ArrayList<>();
+        private final List<List<Integer>> components = new ArrayList<>();
+        private int next;
+
+        private Tarjan() {
+            Arrays.fill(index, -1);
+        }
+
+        private void visit(int id) {
+            index[id] = next;
+            lowLink[id] = next;
+            next++;
+            stack.add(id);
+            onStack[id] = true;
+            for (int callee : callees.get(id)) {
+                if (index[callee] < 0) {
+                    visit(callee);
+                    lowLink[id] = Math.min(lowLink[id], lowLink[callee]);
+                } else if (onStack[callee]) {
+                    lowLink[id] = Math.min(lowLink[id], index[callee]);
+                }
+            }
+            if (lowLink[id] == index[id]) {
+                List<Integer> component = new ArrayList<>();
+                int member;
+                do {
+                    member = stack.remove(stack.size() - 1);
+                    onStack[member] = false;
+                    component.add(member);
+                } while (member != id);
+                components.add(component);
+            }
+        }
+    }
+
+}
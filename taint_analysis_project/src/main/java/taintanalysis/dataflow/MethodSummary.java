@@ -0,0 +1,75 @@
+package taintanalysis.dataflow;
+
+import com.github.javaparser.ast.expr.MethodCallExpr;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * <h1> MethodSummary </h1>
+ *
+ * This class describes how a method of the analyzed file treats the data it receives, so that a call to it can be
+ * analyzed without following its body: the parameters whose data leaves the method (it reaches a sink or is stored
+ * in a field or in an object received as parameter) and the parameters whose data is returned.
+ * For a method whose return value can only reach the calls of the file, it also lists the sources, of its body or of
+ * the methods it calls, whose data is returned: they are sanitized only if a caller lets the returned value reach a sink.
+ * A call passing more arguments than parameters, to a method with a variable number of arguments, applies the flows
+ * of the last parameter to the extra arguments.
+ *
+ * @param parameterCount the number of parameters
+ * @param escapingParameters the parameters whose data leaves the method
+ * @param returnedParameters the parameters whose data is returned
+ * @param returnedSources the sources whose data is returned
+ */
+public record MethodSummary(int parameterCount, BitSet escapingParameters, BitSet returnedParameters,
+                            List<MethodCallExpr> returnedSources) {
+
+    /**
+     * Returns the summary of a method that lets no data flow, from which the summaries of recursive methods are computed.
+     *
+     * @param parameterCount the parameter count
+     * @return method summary
+     */
+    public static MethodSummary empty(int parameterCount) {
+        return new MethodSummary(parameterCount, new BitSet(), new BitSet(), List.of());
+    }
+
+    /**
+     * Checks whether the data of the argument in the given position leaves the method.
+     *
+     * @param argument the argument
+     * @return boolean
+     */
+    public boolean escapes(int argument) {
+        return parameterCount > 0 && escapingParameters.get(parameterOf(argument));
+    }
+
+    /**
+     * Checks whether the data of the argument in the given position is returned.
+     *
+     * @param argument the argument
+     * @return boolean
+     */
+    public boolean returns(int argument) {
+        return parameterCount > 0 && returnedParameters.get(parameterOf(argument));
+    }
+
+    /**
+     * Checks whether the summary describes the same flows as another summary of the same method.
+     * Summaries only grow while the methods of a recursive cycle are analyzed again, so comparing the number of
+     * returned sources is enough.
+     *
+     * @param other the other
+     * @return boolean
+     */
+    public boolean hasSameFlows(MethodSummary other) {
+        return escapingParameters.equals(other.escapingParameters)
+                && returnedParameters.equals(other.returnedParameters)
+                && returnedSources.size() == other.returnedSources.size();
+    }
+
+    private int parameterOf(int argument) {
+        return Math.min(argument, parameterCount - 1);
+    }
+
+}
@@ -0,0 +1,174 @@
+package taintanalysis.dataflow;
+
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.types.ResolvedReferenceType;
+import taintanalysis.config.SinkRegistry;
+import taintanalysis.utils.SymbolResolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1> SinkMatcher </h1>
+ *
+ * This class decides whether a method call or an object creation is a sink of the configuration.
+ * The name of the method is checked first, so only calls to methods named as a sink are resolved.
+ * A call matches if the class declaring the invoked method, or any of its ancestors, lists the method among its sinks,
+ * so that for example a call to write on a FileWriter matches the sink of java.io.Writer.
+ * A creation matches if its class lists the invoked constructor among its sinks, as for a ProcessBuilder.
+ * A call named as a sink whose declaration cannot be resolved is considered a sink.
+ * The matcher also tells the calls to methods of the JDK, the only ones whose effect on their arguments is known.
+ */
+public class SinkMatcher {
+
+    private static final Map<String, List<String>> TYPE_HIERARCHIES = new ConcurrentHashMap<>();
+
+    private final SinkRegistry registry;
+
+    /**
+     * Instantiates a new matcher of the sinks of the registry.
+     *
+     * @param registry the registry
+     */
+    public SinkMatcher(SinkRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Checks whether the call invokes a method with the name of a sink, without resolving it.
+     *
+     * @param methodCall the method call
+     * @return boolean
+     */
+    public boolean hasSinkName(MethodCallExpr methodCall) {
+        return registry.isSinkMethod(methodCall.getNameAsString().concat("()"));
+    }
+
+    /**
+     * Checks whether the call invokes a sink.
+     *
+     * @param methodCall the method call
+     * @return boolean
+     */
+    public boolean isSink(MethodCallExpr methodCall) {
+        if (!hasSinkName(methodCall)) {
+            return false;
+        }
+        String currentMethod = methodCall.getNameAsString().concat("()");
+        ResolvedReferenceTypeDeclaration declaringType;
+        try {
+            declaringType = SymbolResolution.methodOf(methodCall).declaringType();
+        } catch (RuntimeException e) {
+            // The symbol solver reports unresolvable calls with several unchecked exceptions.
+            return true;
+        }
+        for (String className : hierarchyOf(declaringType)) {
+            if (registry.isSink(className, currentMethod)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the creation invokes a constructor listed among the sinks. Only creations of a class
+     * whose simple name has sink constructors are resolved; a creation of such a class whose constructor cannot be
+     * resolved is considered a sink.
+     *
+     * @param creation the creation
+     * @return boolean
+     */
+    public boolean isSink(ObjectCreationExpr creation) {
+        if (!registry.hasSinkConstructors(creation.getType().getNameAsString())) {
+            return false;
+        }
+        ResolvedConstructorDeclaration constructor;
+        try {
+            constructor = SymbolResolution.constructorOf(creation);
+        } catch (RuntimeException e) {
+            // The symbol solver reports unresolvable calls with several unchecked exceptions.
+            return true;
+        }
+        List<String> parameterTypes = new ArrayList<>();
+        for (int i = 0; i < constructor.getNumberOfParams(); i++) {
+            parameterTypes.add(constructor.getParam(i).getType().erasure().describe());
+        }
+        return registry.isSinkConstructor(constructor.declaringType().getQualifiedName(), parameterTypes);
+    }
+
+    /**
+     * Checks whether the call invokes a method declared by a class of the JDK, whose effect on its arguments
+     * is known: they flow into its result or into its receiver. Calls to other methods, including those that cannot
+     * be resolved, may do anything with the data they receive.
+     *
+     * @param methodCall the method call
+     * @return boolean
+     */
+    public boolean isJdkMethod(MethodCallExpr methodCall) {
+        try {
+            return isJdkType(SymbolResolution.methodOf(methodCall).declaringType());
+        } catch (RuntimeException e) {
+            // The symbol solver reports unresolvable calls with several unchecked exceptions.
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the creation invokes a constructor declared by a class of the JDK, whose arguments
+     * only flow into the created object.
+     *
+     * @param creation the creation
+     * @return boolean
+     */
+    public boolean isJdkConstructor(ObjectCreationExpr creation) {
+        try {
+            return isJdkType(SymbolResolution.constructorOf(creation).declaringType());
+        } catch (RuntimeException e) {
+            // The symbol solver reports unresolvable calls with several unchecked exceptions.
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the type belongs to the packages that the reflection type solver resolves.
+     *
+     * @param type the type
+     * @return boolean
+     */
+    private static boolean isJdkType(ResolvedReferenceTypeDeclaration type) {
+        String qualifiedName = type.getQualifiedName();
+        return qualifiedName.startsWith("java.") || qualifiedName.startsWith("javax.");
+    }
+
+    /**
+     * Returns the qualified names of the type and of all its ancestors.
+     * They are computed once for each type and shared by all the files of the run.
+     *
+     * @param type the type
+     * @return list string
+     */
+    private static List<String> hierarchyOf(ResolvedReferenceTypeDeclaration type) {
+        String qualifiedName = type.getQualifiedName();
+        List<String> hierarchy = TYPE_HIERARCHIES.get(qualifiedName);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+        hierarchy = new ArrayList<>();
+        hierarchy.add(qualifiedName);
+        try {
+            for (ResolvedReferenceType ancestor : type.getAllAncestors()) {
+                hierarchy.add(ancestor.getQualifiedName());
+            }
+        } catch (RuntimeException e) {
+            // Ancestors that cannot be resolved are left out.
+        }
+        TYPE_HIERARCHIES.putIfAbsent(qualifiedName, List.copyOf(hierarchy));
+        return TYPE_HIERARCHIES.get(qualifiedName);
+    }
+
+}
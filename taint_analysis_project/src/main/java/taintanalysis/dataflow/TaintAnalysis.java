@@ -0,0 +1,605 @@
+package taintanalysis.dataflow;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.InitializerDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.*;
+import com.github.javaparser.ast.stmt.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <h1> TaintAnalysis </h1>
+ *
+ * This class follows the data of the external sources through the body of a method, to find the sources whose data
+ * reaches a sink. It is a forward may-analysis solved with a worklist over the {@link ControlFlowGraph} of the body.
+ * <p>
+ * Each source call of the body has a bit, and the fact of each variable is the set of sources whose data it may hold.
+ * The facts of all the variables are stored in a single long array, a fixed number of words for each variable,
+ * so the state of a node is one array and joining two states is a bitwise or.
+ * Data flows through assignments, operators, casts, conditional expressions, arrays and the methods and constructors
+ * of the JDK: the result of a call holds the data of its receiver and of its arguments, and the receiver keeps
+ * the data of the arguments, as for StringBuilder.append or List.add.
+ * <p>
+ * The data reaches a sink when it is passed to a sink method or constructor, or held by the receiver of a sink method,
+ * as for the start method of a ProcessBuilder created with the data. It is also considered to reach a sink when it
+ * leaves the method, because what happens to it afterwards is unknown: when it is returned, thrown, stored in a field
+ * or in an object received as parameter, captured by a lambda or a local class, passed to a method together with
+ * a lambda, or passed to a method or constructor declared outside the JDK for which there is no summary, such as
+ * a method that can be overridden, a method of another file or a method that cannot be resolved.
+ * <p>
+ * A call to a method of the same file that has a {@link MethodSummary} is analyzed with it instead: only the
+ * arguments that the summary returns flow to the result, and only those it lets leave the method reach a sink.
+ * When the result of such a call may hold sources returned by the method, the call has a bit of its own, and the
+ * sources are reached only if that bit is. To compute the summary of a method, each of its parameters has a bit too,
+ * and the value returned by a method whose callers are all known is followed in them instead of leaving the method.
+ */
+public class TaintAnalysis {
+
+    private final Node owner;
+    private final SinkMatcher sinks;
+    private final List<MethodCallExpr> sources;
+    private final Function<MethodCallExpr, MethodSummary> summaries;
+    private final boolean summarized;
+    private final boolean returnLeaves;
+    private final Map<MethodCallExpr, Integer> sourceBits = new IdentityHashMap<>();
+    private final Map<MethodCallExpr, Integer> callSites = new IdentityHashMap<>();
+    private final List<MethodSummary> calledSummaries = new ArrayList<>();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Set<String> localVariables = new HashSet<>();
+    private final Set<String> parameters = new HashSet<>();
+    private final Set<String> fields = new HashSet<>();
+    private final List<Parameter> ownerParameters = new ArrayList<>();
+    private int firstCallBit;
+    private int words;
+    private long[] reached;
+    private long[] returned;
+    private Statement body;
+    private Expression returnedExpression;
+    private List<MethodCallExpr> sourcesReachingSinks;
+    private MethodSummary summary;
+
+    /**
+     * Instantiates the analysis of the sources called in the body of the owner.
+     *
+     * @param owner the method, constructor, initializer or lambda containing the sources
+     * @param sources the sources
+     * @param sinks the sinks
+     * @param summaries the summary of the method invoked by a call, or null if the call must be analyzed without it
+     * @param summarized whether the summary of the owner, a method, is computed
+     * @param returnLeaves whether the value returned by the owner leaves it, because some of its callers are unknown
+     */
+    public TaintAnalysis(Node owner, List<MethodCallExpr> sources, SinkMatcher sinks,
+                         Function<MethodCallExpr, MethodSummary> summaries, boolean summarized, boolean returnLeaves) {
+        this.owner = owner;
+        this.sources = sources;
+        this.sinks = sinks;
+        this.summaries = summaries;
+        this.summarized = summarized;
+        this.returnLeaves = returnLeaves;
+        for (int i = 0; i < sources.size(); i++) {
+            sourceBits.put(sources.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the innermost method, constructor, initializer or lambda whose body contains the node.
+     *
+     * @param node the node
+     * @return optional node
+     */
+    public static Optional<Node> ownerOf(Node node) {
+        Optional<Node> parent = node.getParentNode();
+        while (parent.isPresent()) {
+            Node candidate = parent.get();
+            if (candidate instanceof MethodDeclaration || candidate instanceof ConstructorDeclaration
+                    || candidate instanceof InitializerDeclaration || candidate instanceof LambdaExpr) {
+                return Optional.of(candidate);
+            }
+            parent = candidate.getParentNode();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the sources whose data reaches a sink: those of the body, in the order they were given,
+     * followed by the sources returned by the summarized methods whose result reaches a sink.
+     *
+     * @return list method call expr
+     */
+    public List<MethodCallExpr> findSourcesReachingSinks() {
+        if (sourcesReachingSinks == null) {
+            analyze();
+        }
+        return sourcesReachingSinks;
+    }
+
+    /**
+     * Returns the summary of the owner, which must be a method whose summary is computed.
+     *
+     * @return method summary
+     */
+    public MethodSummary getSummary() {
+        if (sourcesReachingSinks == null) {
+            analyze();
+        }
+        return summary;
+    }
+
+    private void analyze() {
+        sourcesReachingSinks = new ArrayList<>();
+        if (owner instanceof CallableDeclaration) {
+            ownerParameters.addAll(((CallableDeclaration<?>) owner).getParameters());
+            body = owner instanceof MethodDeclaration
+                    ? ((MethodDeclaration) owner).getBody().orElse(null)
+                    : ((ConstructorDeclaration) owner).getBody();
+        } else if (owner instanceof LambdaExpr) {
+            LambdaExpr lambda = (LambdaExpr) owner;
+            ownerParameters.addAll(lambda.getParameters());
+            body = lambda.getBody();
+            returnedExpression = lambda.getExpressionBody().orElse(null);
+        } else if (owner instanceof InitializerDeclaration) {
+            body = ((InitializerDeclaration) owner).getBody();
+        }
+        if (body == null) {
+            summary = MethodSummary.empty(ownerParameters.size());
+            return;
+        }
+
+        for (Node ancestor = owner; ancestor != null; ancestor = ancestor.getParentNode().orElse(null)) {
+            if (ancestor instanceof TypeDeclaration) {
+                for (FieldDeclaration field : ((TypeDeclaration<?>) ancestor).getFields()) {
+                    field.getVariables().forEach(variable -> fields.add(variable.getNameAsString()));
+                }
+            }
+        }
+        for (Parameter parameter : ownerParameters) {
+            parameters.add(parameter.getNameAsString());
+            slots.putIfAbsent(parameter.getNameAsString(), slots.size());
+        }
+        collectNames(body);
+        int parameterBits = summarized ? ownerParameters.size() : 0;
+        firstCallBit = sources.size() + parameterBits;
+        words = Math.max(1, (firstCallBit + calledSummaries.size() + 63) >>> 6);
+        reached = new long[words];
+        returned = new long[words];
+
+        long[] entry = new long[slots.size() * words];
+        for (int i = 0; i < parameterBits; i++) {
+            int bit = sources.size() + i;
+            entry[slots.get(ownerParameters.get(i).getNameAsString()) * words + (bit >>> 6)] |= 1L << bit;
+        }
+        solve(ControlFlowGraph.of(body), entry);
+
+        List<MethodCallExpr> returnedSources = new ArrayList<>();
+        Set<MethodCallExpr> reaching = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<MethodCallExpr> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (MethodCallExpr source : sources) {
+            int bit = sourceBits.get(source);
+            if (has(reached, bit)) {
+                reaching.add(source);
+                sourcesReachingSinks.add(source);
+            } else if (has(returned, bit) && added.add(source)) {
+                returnedSources.add(source);
+            }
+        }
+        for (int i = 0; i < calledSummaries.size(); i++) {
+            for (MethodCallExpr source : calledSummaries.get(i).returnedSources()) {
+                if (has(reached, firstCallBit + i)) {
+                    if (reaching.add(source)) {
+                        sourcesReachingSinks.add(source);
+                    }
+                } else if (has(returned, firstCallBit + i) && added.add(source)) {
+                    returnedSources.add(source);
+                }
+            }
+        }
+
+        BitSet escapingParameters = new BitSet();
+        BitSet returnedParameters = new BitSet();
+        for (int i = 0; i < parameterBits; i++) {
+            escapingParameters.set(i, has(reached, sources.size() + i));
+            returnedParameters.set(i, has(returned, sources.size() + i));
+        }
+        summary = new MethodSummary(ownerParameters.size(), escapingParameters, returnedParameters,
+                returnLeaves ? List.of() : returnedSources);
+    }
+
+    /**
+     * Computes the fixpoint of the facts of the nodes, processing first the pending node that comes first in the body.
+     *
+     * @param graph the graph
+     * @param entry the facts at the entry of the body
+     */
+    private void solve(ControlFlowGraph graph, long[] entry) {
+        int width = slots.size() * words;
+        long[][] out = new long[graph.size()][width];
+        long[] state = new long[width];
+        BitSet pending = new BitSet(graph.size());
+        pending.set(0, graph.size());
+
+        for (int node = pending.nextSetBit(0); node >= 0; node = pending.nextSetBit(0)) {
+            pending.clear(node);
+            if (node == 0) {
+                System.arraycopy(entry, 0, state, 0, width);
+            } else {
+                Arrays.fill(state, 0L);
+            }
+            for (int predecessor : graph.getPredecessors(node)) {
+                or(state, 0, out[predecessor], 0, width);
+            }
+            transfer(graph.getElement(node), state);
+            if (!Arrays.equals(state, out[node])) {
+                System.arraycopy(state, 0, out[node], 0, width);
+                for (int successor : graph.getSuccessors(node)) {
+                    pending.set(successor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the element of a node to the facts.
+     *
+     * @param element the element
+     * @param state the facts
+     */
+    private void transfer(Node element, long[] state) {
+        if (element == null) {
+            return;
+        }
+        long[] value = new long[words];
+        if (element instanceof Expression) {
+            eval((Expression) element, state, value);
+            if (element == returnedExpression) {
+                escape(value);
+            }
+        } else if (element instanceof ReturnStmt) {
+            ((ReturnStmt) element).getExpression().ifPresent(expression -> eval(expression, state, value));
+            or(returned, 0, value, 0, words);
+            if (returnLeaves) {
+                escape(value);
+            }
+        } else if (element instanceof ForEachStmt) {
+            ForEachStmt forEach = (ForEachStmt) element;
+            eval(forEach.getIterable(), state, value);
+            for (VariableDeclarator variable : forEach.getVariable().getVariables()) {
+                assign(state, variable.getNameAsString(), value);
+            }
+        } else if (element instanceof ThrowStmt) {
+            eval(((ThrowStmt) element).getExpression(), state, value);
+            escape(value);
+        } else if (element instanceof CatchClause) {
+            assign(state, ((CatchClause) element).getParameter().getNameAsString(), value);
+        } else if (element instanceof ExplicitConstructorInvocationStmt) {
+            for (Expression argument : ((ExplicitConstructorInvocationStmt) element).getArguments()) {
+                eval(argument, state, value);
+            }
+            escape(value);
+        } else if (element instanceof LocalClassDeclarationStmt || element instanceof LocalRecordDeclarationStmt) {
+            escapeCaptured(element, state);
+        } else {
+            evalChildren(element, state, value);
+        }
+    }
+
+    /**
+     * Adds to the result the sources whose data the expression may hold, applying its side effects to the facts.
+     *
+     * @param expression the expression
+     * @param state the facts
+     * @param result the result
+     */
+    private void eval(Expression expression, long[] state, long[] result) {
+        if (expression instanceof NameExpr) {
+            load(state, ((NameExpr) expression).getNameAsString(), result);
+        } else if (expression instanceof MethodCallExpr) {
+            evalCall((MethodCallExpr) expression, state, result);
+        } else if (expression instanceof AssignExpr) {
+            evalAssign((AssignExpr) expression, state, result);
+        } else if (expression instanceof VariableDeclarationExpr) {
+            for (VariableDeclarator variable : ((VariableDeclarationExpr) expression).getVariables()) {
+                long[] value = new long[words];
+                variable.getInitializer().ifPresent(initializer -> eval(initializer, state, value));
+                assign(state, variable.getNameAsString(), value);
+            }
+        } else if (expression instanceof FieldAccessExpr) {
+            FieldAccessExpr fieldAccess = (FieldAccessExpr) expression;
+            if (fieldAccess.getScope().isThisExpr()) {
+                load(state, fieldAccess.getNameAsString(), result);
+            } else {
+                eval(fieldAccess.getScope(), state, result);
+            }
+        } else if (expression instanceof ObjectCreationExpr) {
+            evalCreation((ObjectCreationExpr) expression, state, result);
+        } else if (expression instanceof ConditionalExpr) {
+            ConditionalExpr conditional = (ConditionalExpr) expression;
+            eval(conditional.getCondition(), state, new long[words]);
+            eval(conditional.getThenExpr(), state, result);
+            eval(conditional.getElseExpr(), state, result);
+        } else if (expression instanceof ArrayAccessExpr) {
+            ArrayAccessExpr arrayAccess = (ArrayAccessExpr) expression;
+            eval(arrayAccess.getName(), state, result);
+            eval(arrayAccess.getIndex(), state, new long[words]);
+        } else if (expression instanceof InstanceOfExpr) {
+            InstanceOfExpr instanceOf = (InstanceOfExpr) expression;
+            long[] value = new long[words];
+            eval(instanceOf.getExpression(), state, value);
+            instanceOf.getPattern().ifPresent(pattern -> assign(state, pattern.getNameAsString(), value));
+        } else if (expression instanceof LambdaExpr) {
+            escapeCaptured(expression, state);
+        } else if (!(expression instanceof LiteralExpr)) {
+            evalChildren(expression, state, result);
+        }
+    }
+
+    /**
+     * Evaluates the expressions contained in the node, in the order they appear.
+     *
+     * @param node the node
+     * @param state the facts
+     * @param result the result
+     */
+    private void evalChildren(Node node, long[] state, long[] result) {
+        for (Node child : node.getChildNodes()) {
+            if (child instanceof Expression) {
+                eval((Expression) child, state, result);
+            } else {
+                evalChildren(child, state, result);
+            }
+        }
+    }
+
+    private void evalCall(MethodCallExpr call, long[] state, long[] result) {
+        long[] receiver = new long[words];
+        call.getScope().ifPresent(scope -> eval(scope, state, receiver));
+        Integer callSite = callSites.get(call);
+        MethodSummary calledSummary = callSite != null ? calledSummaries.get(callSite) : null;
+        long[] arguments = new long[words];
+        boolean functional = false;
+        for (int i = 0; i < call.getArguments().size(); i++) {
+            Expression argument = call.getArgument(i);
+            long[] value = calledSummary != null ? new long[words] : arguments;
+            eval(argument, state, value);
+            functional |= argument.isLambdaExpr() || argument.isMethodReferenceExpr();
+            if (calledSummary != null) {
+                or(arguments, 0, value, 0, words);
+                if (calledSummary.escapes(i)) {
+                    escape(value);
+                }
+                if (calledSummary.returns(i)) {
+                    or(result, 0, value, 0, words);
+                }
+            }
+        }
+
+        Integer bit = sourceBits.get(call);
+        if (bit != null) {
+            result[bit >>> 6] |= 1L << bit;
+        }
+        // Only a call receiving data of the sources needs to be resolved to know whether it is a sink.
+        if ((!isEmpty(arguments) || !isEmpty(receiver)) && sinks.isSink(call)) {
+            escape(receiver);
+            escape(arguments);
+        }
+        if (functional) {
+            // The function may receive the data of the receiver and of the other arguments.
+            escape(receiver);
+            escape(arguments);
+        }
+        if (calledSummary != null) {
+            // What the method stores in the receiver goes to its fields, so the summary already lets it leave.
+            int callBit = firstCallBit + callSite;
+            result[callBit >>> 6] |= 1L << callBit;
+            or(result, 0, receiver, 0, words);
+            return;
+        }
+        if ((!isEmpty(arguments) || !isEmpty(receiver)) && !sinks.isJdkMethod(call)) {
+            // What a method outside the JDK does with the data is unknown.
+            escape(receiver);
+            escape(arguments);
+        }
+        if (!isEmpty(arguments)) {
+            call.getScope().ifPresent(scope -> storeInto(scope, arguments, state, true));
+        }
+        or(result, 0, receiver, 0, words);
+        or(result, 0, arguments, 0, words);
+    }
+
+    private void evalCreation(ObjectCreationExpr creation, long[] state, long[] result) {
+        creation.getScope().ifPresent(scope -> eval(scope, state, result));
+        long[] arguments = new long[words];
+        for (Expression argument : creation.getArguments()) {
+            eval(argument, state, arguments);
+        }
+        // As for calls, only a creation receiving data of the sources is resolved.
+        if (!isEmpty(arguments) && (sinks.isSink(creation) || !sinks.isJdkConstructor(creation))) {
+            escape(arguments);
+        }
+        or(result, 0, arguments, 0, words);
+        if (creation.getAnonymousClassBody().isPresent()) {
+            escapeCaptured(creation, state);
+        }
+    }
+
+    private void evalAssign(AssignExpr assign, long[] state, long[] result) {
+        long[] value = new long[words];
+        Expression target = assign.getTarget();
+        if (assign.getOperator() != AssignExpr.Operator.ASSIGN) {
+            eval(target, state, value);
+        }
+        eval(assign.getValue(), state, value);
+
+        if (target.isNameExpr()) {
+            String name = target.asNameExpr().getNameAsString();
+            assign(state, name, value);
+            if (!localVariables.contains(name) && !parameters.contains(name)) {
+                escape(value);
+            }
+        } else if (target.isFieldAccessExpr() && target.asFieldAccessExpr().getScope().isThisExpr()) {
+            assign(state, target.asFieldAccessExpr().getNameAsString(), value);
+            escape(value);
+        } else if (target.isFieldAccessExpr()) {
+            storeInto(target.asFieldAccessExpr().getScope(), value, state, false);
+        } else if (target.isArrayAccessExpr()) {
+            eval(target.asArrayAccessExpr().getIndex(), state, new long[words]);
+            storeInto(target.asArrayAccessExpr().getName(), value, state, false);
+        }
+        or(result, 0, value, 0, words);
+    }
+
+    /**
+     * Adds data to the object denoted by the expression, as when one of its fields or elements is assigned.
+     * The data leaves the method unless the object is referenced by a local variable.
+     * For the receiver of a call, a name that is neither a variable, a parameter nor a field of the enclosing classes,
+     * and starts with an uppercase letter, is taken as the class of a static method, in which nothing is stored;
+     * data assigned to a field of a class is stored in a static field, so it leaves the method.
+     *
+     * @param object the object
+     * @param value the data
+     * @param state the facts
+     * @param receiver whether the object is the receiver of a call
+     */
+    private void storeInto(Expression object, long[] value, long[] state, boolean receiver) {
+        if (object.isNameExpr()) {
+            String name = object.asNameExpr().getNameAsString();
+            boolean local = localVariables.contains(name);
+            if (receiver && !local && !parameters.contains(name) && !fields.contains(name)
+                    && Character.isUpperCase(name.charAt(0))) {
+                return;
+            }
+            or(state, slots.get(name) * words, value, 0, words);
+            if (!local) {
+                escape(value);
+            }
+        } else if (object.isFieldAccessExpr() && object.asFieldAccessExpr().getScope().isThisExpr()) {
+            or(state, slots.get(object.asFieldAccessExpr().getNameAsString()) * words, value, 0, words);
+            escape(value);
+        } else if (object.isFieldAccessExpr() || object.isArrayAccessExpr()) {
+            Expression inner = object.isFieldAccessExpr()
+                    ? object.asFieldAccessExpr().getScope()
+                    : object.asArrayAccessExpr().getName();
+            storeInto(inner, value, state, receiver);
+        } else if (object.isEnclosedExpr() || object.isCastExpr()) {
+            Expression inner = object.isEnclosedExpr()
+                    ? object.asEnclosedExpr().getInner()
+                    : object.asCastExpr().getExpression();
+            storeInto(inner, value, state, receiver);
+        } else {
+            // The object is this, or the result of a call or of another expression that cannot be followed.
+            escape(value);
+        }
+    }
+
+    /**
+     * Lets the data of every variable referenced in a lambda or a local or anonymous class leave the method.
+     *
+     * @param nested the nested body
+     * @param state the facts
+     */
+    private void escapeCaptured(Node nested, long[] state) {
+        for (Node child : nested.getChildNodes()) {
+            String name = null;
+            if (child instanceof NameExpr) {
+                name = ((NameExpr) child).getNameAsString();
+            } else if (child instanceof FieldAccessExpr && ((FieldAccessExpr) child).getScope().isThisExpr()) {
+                name = ((FieldAccessExpr) child).getNameAsString();
+            }
+            if (name != null && slots.containsKey(name)) {
+                int offset = slots.get(name) * words;
+                or(reached, 0, state, offset, words);
+            }
+            escapeCaptured(child, state);
+        }
+    }
+
+    /**
+     * Assigns a slot to every name that can hold data in the body, and records the names of the local variables.
+     *
+     * @param node the node
+     */
+    private void collectNames(Node node) {
+        String name = null;
+        if (node instanceof VariableDeclarator) {
+            name = ((VariableDeclarator) node).getNameAsString();
+            localVariables.add(name);
+        } else if (node instanceof Parameter) {
+            name = ((Parameter) node).getNameAsString();
+            localVariables.add(name);
+        } else if (node instanceof PatternExpr) {
+            name = ((PatternExpr) node).getNameAsString();
+            localVariables.add(name);
+        } else if (node instanceof NameExpr) {
+            name = ((NameExpr) node).getNameAsString();
+        } else if (node instanceof MethodCallExpr) {
+            MethodSummary calledSummary = summaries.apply((MethodCallExpr) node);
+            if (calledSummary != null) {
+                callSites.put((MethodCallExpr) node, calledSummaries.size());
+                calledSummaries.add(calledSummary);
+            }
+        } else if (node instanceof FieldAccessExpr && ((FieldAccessExpr) node).getScope().isThisExpr()) {
+            name = ((FieldAccessExpr) node).getNameAsString();
+        }
+        if (name != null) {
+            slots.putIfAbsent(name, slots.size());
+        }
+        for (Node child : node.getChildNodes()) {
+            collectNames(child);
+        }
+    }
+
+    private void load(long[] state, String name, long[] result) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            or(result, 0, state, slot * words, words);
+        }
+    }
+
+    private void assign(long[] state, String name, long[] value) {
+        Integer slot = slots.get(name);
+        if (slot != null) {
+            System.arraycopy(value, 0, state, slot * words, words);
+        }
+    }
+
+    private void escape(long[] value) {
+        or(reached, 0, value, 0, words);
+    }
+
+    private static void or(long[] target, int targetOffset, long[] source, int sourceOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            target[targetOffset + i] |= source[sourceOffset + i];
+        }
+    }
+
+    private static boolean isEmpty(long[] value) {
+        for (long word : value) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean has(long[] value, int bit) {
+        return (value[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+}
@@ -23,7 +23,17 @@ public enum ErrorCode {
     /**
      * Directory not found.
      */
-    DIRECTORY_NOT_FOUND("Directory not found");
+    DIRECTORY_NOT_FOUND("Directory not found"),
+
+    /**
+     * Invalid option.
+     */
+    INVALID_OPTION("Invalid option"),
+
+    /**
+     * Analysis interrupted.
+     */
+    ANALYSIS_INTERRUPTED("Analysis interrupted");
 
     private final String message;
 
@@ -0,0 +1,50 @@
+package taintanalysis.events;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+
+/**
+ * <h1> AnalysisEvents </h1>
+ *
+ * This class links the nodes of a parsed file to the name of the file, so that the Flight Recorder events
+ * emitted while the tree is analyzed can report it. The name is stored in the data of the CompilationUnit,
+ * and it is looked up only when an event is committed.
+ */
+public class AnalysisEvents {
+
+    /**
+     * Category of all the events of the analysis.
+     */
+    public static final String CATEGORY = "Taint Analysis";
+
+    private static final DataKey<String> FILE_NAME = new DataKey<>() {
+    };
+
+    private AnalysisEvents() {
+    }
+
+    /**
+     * Records the name of the file the CompilationUnit has been parsed from.
+     *
+     * @param cu the cu
+     * @param fileName the file name
+     */
+    public static void setFileName(CompilationUnit cu, String fileName) {
+        cu.setData(FILE_NAME, fileName);
+    }
+
+    /**
+     * Returns the name of the file the node belongs to, or null if the node is not part of a parsed file.
+     *
+     * @param node the node
+     * @return string
+     */
+    public static String fileNameOf(Node node) {
+        return node.findCompilationUnit()
+                .filter(cu -> cu.containsData(FILE_NAME))
+                .map(cu -> cu.getData(FILE_NAME))
+                .orElse(null);
+    }
+
+}
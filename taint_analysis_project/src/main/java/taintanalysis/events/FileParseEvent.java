@@ -0,0 +1,32 @@
+package taintanalysis.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <h1> FileParseEvent </h1>
+ *
+ * Flight Recorder event emitted for the parsing of a user file.
+ */
+@Name("taintanalysis.FileParse")
+@Label("File Parse")
+@Category(AnalysisEvents.CATEGORY)
+@Description("Parsing of a user file into a CompilationUnit")
+@StackTrace(false)
+public class FileParseEvent extends Event {
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Length")
+    @Description("Number of characters of the source code")
+    public long length;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+}
@@ -0,0 +1,34 @@
+package taintanalysis.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <h1> FileWriteEvent </h1>
+ *
+ * Flight Recorder event emitted when a file is written, or copied, to the destination directory.
+ */
+@Name("taintanalysis.FileWrite")
+@Label("File Write")
+@Category(AnalysisEvents.CATEGORY)
+@Description("Output file written to the destination directory")
+@StackTrace(false)
+public class FileWriteEvent extends Event {
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    public long size;
+
+    @Label("Copied")
+    @Description("Whether the source file has been copied unchanged")
+    public boolean copied;
+
+}
@@ -0,0 +1,39 @@
+package taintanalysis.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <h1> RuleMatchEvent </h1>
+ *
+ * Flight Recorder event emitted for the search of the configuration for the source matching a resolved call.
+ */
+@Name("taintanalysis.RuleMatch")
+@Label("Config Rule Match")
+@Category(AnalysisEvents.CATEGORY)
+@Description("Search of the configured sources for a resolved call")
+@StackTrace(false)
+public class RuleMatchEvent extends Event {
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Method Name")
+    public String methodName;
+
+    @Label("Resolved Class")
+    public String resolvedClass;
+
+    @Label("Source")
+    @Description("Name of the matching source, if any")
+    public String source;
+
+    @Label("Untrusted")
+    @Description("Whether the matching source is untrusted")
+    public boolean untrusted;
+
+}
@@ -0,0 +1,40 @@
+package taintanalysis.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <h1> SanitizerInsertionEvent </h1>
+ *
+ * Flight Recorder event emitted when a call to an untrusted source is wrapped with a sanitization method.
+ */
+@Name("taintanalysis.SanitizerInsertion")
+@Label("Sanitizer Insertion")
+@Category(AnalysisEvents.CATEGORY)
+@Description("Call to an untrusted source wrapped with a sanitization method")
+@StackTrace(false)
+public class SanitizerInsertionEvent extends Event {
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Method Name")
+    public String methodName;
+
+    @Label("Resolved Class")
+    public String resolvedClass;
+
+    @Label("Source")
+    public String source;
+
+    @Label("Sanitizer")
+    public String sanitizer;
+
+    @Label("Line")
+    public int line;
+
+}
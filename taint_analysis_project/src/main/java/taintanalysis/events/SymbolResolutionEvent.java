@@ -0,0 +1,41 @@
+package taintanalysis.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <h1> SymbolResolutionEvent </h1>
+ *
+ * Flight Recorder event emitted for a request to the symbol solver. Resolutions answered with the result kept
+ * in the node are not requests, and emit no event.
+ */
+@Name("taintanalysis.SymbolResolution")
+@Label("Symbol Resolution")
+@Category(AnalysisEvents.CATEGORY)
+@Description("Request to the symbol solver")
+@StackTrace(false)
+public class SymbolResolutionEvent extends Event {
+
+    @Label("File Name")
+    public String fileName;
+
+    @Label("Kind")
+    @Description("What is resolved: type, method, constructor or field")
+    public String kind;
+
+    @Label("Method Name")
+    @Description("Name of the invoked method, when a call is resolved")
+    public String methodName;
+
+    @Label("Resolved Class")
+    @Description("Resolved type, or class declaring the resolved method or constructor")
+    public String resolvedClass;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+
+}
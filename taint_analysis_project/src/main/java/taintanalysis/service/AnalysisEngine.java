@@ -0,0 +1,394 @@
+package taintanalysis.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import taintanalysis.config.ConfigLoader;
+import taintanalysis.config.ConfigSnapshot;
+import taintanalysis.config.RunOptions;
+import taintanalysis.error.ErrorException;
+import taintanalysis.utils.AnalysisCache;
+import taintanalysis.utils.AnalysisMetrics;
+import taintanalysis.utils.AsyncLogger;
+import taintanalysis.utils.CacheEntry;
+import taintanalysis.utils.MetricsExporter;
+import taintanalysis.utils.ParserContext;
+import taintanalysis.utils.AnalysisMetrics.Stage;
+import taintanalysis.utils.SourceSplicer;
+import taintanalysis.utils.StagedPipeline;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import static taintanalysis.error.ErrorCode.ANALYSIS_INTERRUPTED;
+import static taintanalysis.error.ErrorCode.JAVA_FILE_NOT_FOUND;
+import static taintanalysis.error.ErrorCode.generateErrorException;
+import static taintanalysis.error.ErrorCode.generateException;
+import static taintanalysis.utils.AnalysisMetrics.Phase.*;
+import static taintanalysis.utils.AsyncLogger.Level.DEBUG;
+import static taintanalysis.utils.AsyncLogger.Level.INFO;
+import static taintanalysis.utils.FileUtils.*;
+
+/**
+ * <h1> AnalysisEngine </h1>
+ *
+ * This class runs the analysis of the user files, either sequentially, spreading them over a pool of workers,
+ * or in a pipeline whose stages read, analyze and write different files at the same time.
+ * Each file is parsed, visited and written independently of the others,
+ * so the output produced in parallel mode is the same as that of a sequential run.
+ * The services used by the visitors ({@link ConfigLoader}, {@link ConstructorAnalyzer} and the file utilities)
+ * keep no state about the file being analyzed, so a single instance of each is shared by all the workers.
+ * Files that do not mention any configured method cannot contain external sources: they are copied unchanged
+ * without being parsed. The other files are copied too when no call has been sanitized; otherwise the sanitizers
+ * are spliced into their original text, keeping its formatting, and the output is written in UTF-8.
+ * In incremental mode, files whose content and configuration have not changed since the previous run
+ * are neither parsed nor visited, and their previous output is reused.
+ * In bounded-memory mode, a permit is needed to parse a file and is released with its tree after the visit,
+ * so the number of trees held at the same time is limited whatever the mode; the sanitized calls of the files
+ * are kept as {@link CompactFindings}.
+ * The time spent in each phase is collected in {@link AnalysisMetrics}, and exported at the end of the run
+ * if a metrics file is given.
+ */
+public class AnalysisEngine {
+
+    private final RunOptions options;
+    private final AnalysisCache cache;
+    private final AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+    private final AsyncLogger logger = AsyncLogger.getInstance();
+    private final ConfigLoader configLoader = ConfigLoader.getInstance();
+    private final Semaphore liveTrees;
+    private final CompactFindings compactFindings;
+
+    public AnalysisEngine(RunOptions options) {
+        this.options = options;
+        this.cache = options.isIncremental() ? AnalysisCache.load(options.isDataflow()) : null;
+        if (options.isBoundedMemory()) {
+            liveTrees = new Semaphore(options.getMaxLiveTrees());
+            compactFindings = new CompactFindings();
+            ParserContext.getInstance().limitParsedTrees(options.getMaxLiveTrees());
+        } else {
+            liveTrees = null;
+            compactFindings = null;
+        }
+    }
+
+    /**
+     * Analyzes the files of the stream as they are found, using the number of workers provided by the options,
+     * then saves the cache and exports the metrics.
+     *
+     * @param sources the relative paths of the files
+     * @throws ErrorException the error exception
+     */
+    public void run(Stream<String> sources) throws ErrorException {
+        long start = System.nanoTime();
+        long files = 0;
+        if (options.isPipeline()) {
+            files = runPipeline(sources);
+        } else if (options.isParallel()) {
+            files = runParallel(sources);
+        } else {
+            for (Iterator<String> iterator = sources.iterator(); iterator.hasNext(); files++) {
+                analyzeFile(iterator.next());
+            }
+        }
+        if (files == 0) {
+            throw generateErrorException(JAVA_FILE_NOT_FOUND);
+        }
+        if (compactFindings != null) {
+            logFindings(files);
+        }
+
+        if (cache != null) {
+            cache.save();
+        }
+        if (options.getMetricsFile() != null) {
+            new MetricsExporter(System.nanoTime() - start).export(Paths.get(options.getMetricsFile()));
+        }
+    }
+
+    /**
+     * Logs at the info level the number of sanitized calls of the run and of the files that contain them and,
+     * at the debug level, each sanitized call as kept in the compact records.
+     *
+     * @param files the number of files of the run
+     */
+    private void logFindings(long files) {
+        logger.log(INFO, "run.findings", "calls", String.valueOf(compactFindings.size()),
+                "files", String.valueOf(compactFindings.getFileCount()), "analyzed", String.valueOf(files), null, null);
+        if (!AsyncLogger.isEnabled(DEBUG)) {
+            return;
+        }
+        for (int index = 0; index < compactFindings.size(); index++) {
+            logger.log(DEBUG, "call.sanitized", "file", compactFindings.getFileName(index),
+                    "position", compactFindings.getLine(index) + ":" + compactFindings.getColumn(index),
+                    "source", compactFindings.getSource(index), "sanitizer", compactFindings.getSanitizer(index));
+        }
+    }
+
+    /**
+     * Analyzes the files on a fork-join pool and waits for all of them to be completed.
+     * Each file is submitted as soon as it is found, while the following ones are still being searched.
+     * The first error found is propagated to the caller.
+     *
+     * @param sources the relative paths of the files
+     * @return the number of files
+     * @throws ErrorException the error exception
+     */
+    private long runParallel(Stream<String> sources) throws ErrorException {
+        var pool = new ForkJoinPool(options.getWorkers());
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            sources.forEach(fileName -> tasks.add(pool.submit(() -> analyzeFile(fileName))));
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+            return tasks.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw generateErrorException(ANALYSIS_INTERRUPTED);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : generateException(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Analyzes the files in a pipeline of three stages, reading and parsing, analyzing and writing,
+     * each with the number of workers provided by the options and connected by bounded queues.
+     * A slow stage makes the previous ones wait, so the number of parsed trees held in memory is bounded
+     * whatever the number of files. The first error found is propagated to the caller.
+     *
+     * @param sources the relative paths of the files
+     * @return the number of files
+     * @throws ErrorException the error exception
+     */
+    private long runPipeline(Stream<String> sources) throws ErrorException {
+        int[] workers = options.getStageWorkers();
+        var pipeline = new StagedPipeline<FileJob>(options.getQueueCapacity())
+                .stage(Stage.READ, workers[0], this::read)
+                .stage(Stage.ANALYZE, workers[1], this::analyze)
+                .stage(Stage.WRITE, workers[2], this::write);
+        long start = System.nanoTime();
+        long files;
+        try {
+            files = pipeline.run(sources.map(FileJob::new).iterator());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw generateErrorException(ANALYSIS_INTERRUPTED);
+        }
+        logStageReport(System.nanoTime() - start);
+        return files;
+    }
+
+    /**
+     * Logs at the info level, for each stage of the pipeline, the files it processed, its throughput over
+     * the whole run, the time its workers were busy and the largest number of files that waited in its queue.
+     * The stage with the longest busy time per worker limits the throughput of the pipeline.
+     *
+     * @param elapsedNanos the duration of the run
+     */
+    private void logStageReport(long elapsedNanos) {
+        if (!AsyncLogger.isEnabled(INFO)) {
+            return;
+        }
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        for (Stage stage : Stage.values()) {
+            long files = metrics.getStageFiles(stage);
+            logger.log(INFO, "pipeline.stage", "stage", stage.name().toLowerCase(),
+                    "filesPerSecond", String.format("%.1f", files / seconds),
+                    "busySeconds", String.format("%.3f", metrics.getStageNanos(stage) / 1e9),
+                    "maxQueue", metrics.getMaxQueueDepth(stage) + "/" + options.getQueueCapacity());
+        }
+    }
+
+    /**
+     * Parses the file, applies input sanitization where needed and writes the result in the destination directory.
+     * Files that cannot contain external sources, or in which no call has been sanitized, are copied as they are.
+     *
+     * @param fileName the path of the file, relative to the source directory
+     */
+    private void analyzeFile(String fileName) {
+        var job = new FileJob(fileName);
+        read(job);
+        analyze(job);
+        write(job);
+    }
+
+    /**
+     * Reads the file and parses it, unless it cannot contain external sources or its previous output can be reused,
+     * which is the case if its content has not changed and the destination still holds the output of the last run.
+     *
+     * @param job the job
+     */
+    private void read(FileJob job) {
+        job.sourceFilePath = Paths.get(options.getSourceDirectory(), job.fileName).toString();
+        job.destinationFile = getDestinationPath(options.getDestinationDirectory(), job.fileName);
+        byte[] content = readFileContent(job.sourceFilePath);
+
+        // The same configuration decides whether the file is skipped and how it is visited.
+        job.config = configLoader.getSnapshot();
+        if (!metrics.call(SCAN, () -> job.config.mayContainSources(content))) {
+            job.outcome = Outcome.SKIPPED;
+            return;
+        }
+
+        if (cache != null) {
+            job.contentHash = metrics.call(HASH, () -> AnalysisCache.hash(content));
+            Optional<CacheEntry> entry = cache.lookup(job.fileName, job.contentHash);
+            if (entry.isPresent() && metrics.call(HASH, () -> isOutputOf(job.destinationFile, entry.get()))) {
+                job.findings = entry.get().getFindings();
+                job.outcome = Outcome.REUSED;
+                return;
+            }
+        }
+
+        job.sourceCode = new String(content, StandardCharsets.UTF_8);
+        if (liveTrees == null) {
+            job.cu = metrics.call(PARSE, () -> retrieveCompilationUnit(job.sourceCode, job.fileName));
+        }
+    }
+
+    /**
+     * Visits the parsed file and splices the sanitizers into its text. In bounded-memory mode the file is parsed
+     * here, once one of the permits of the live trees is available, and the permit is released with the tree.
+     *
+     * @param job the job
+     */
+    private void analyze(FileJob job) {
+        if (job.sourceCode == null) {
+            return;
+        }
+        if (liveTrees == null) {
+            visit(job);
+            return;
+        }
+        try {
+            liveTrees.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw generateException(e);
+        }
+        try {
+            job.cu = metrics.call(PARSE, () -> retrieveCompilationUnit(job.sourceCode, job.fileName));
+            visit(job);
+        } finally {
+            job.cu = null;
+            liveTrees.release();
+        }
+    }
+
+    /**
+     * Visits the parsed file, splices the sanitizers into its text and releases the tree: only the output
+     * and the findings are passed to the next step.
+     *
+     * @param job the job
+     */
+    private void visit(FileJob job) {
+        var visitor = new MethodCallVisitor(job.cu, options.isDataflow(), job.config);
+        metrics.run(VISIT, () -> visitor.visit(job.cu, null));
+        if (visitor.getEdits().isEmpty()) {
+            job.output = job.sourceCode;
+            job.outcome = Outcome.UNCHANGED;
+        } else {
+            job.output = metrics.call(PRINT, () -> new SourceSplicer(job.sourceCode)
+                    .splice(visitor.getEdits())
+                    .orElseGet(job.cu::toString));
+            job.outcome = Outcome.CHANGED;
+        }
+        job.findings = visitor.getFindings();
+        // The tree is no longer needed, and the job may wait in the queue of the next stage.
+        job.cu = null;
+        job.sourceCode = null;
+    }
+
+    /**
+     * Writes the output of the file and stores the result of its analysis in the cache and,
+     * in bounded-memory mode, its sanitized calls as compact records.
+     *
+     * @param job the job
+     */
+    private void write(FileJob job) {
+        switch (job.outcome) {
+            case SKIPPED -> {
+                metrics.run(WRITE, () -> copyOutputFile(job.sourceFilePath, job.destinationFile));
+                metrics.countCopiedFile();
+            }
+            case REUSED -> metrics.countReusedFile();
+            case UNCHANGED -> metrics.run(WRITE, () -> copyOutputFile(job.sourceFilePath, job.destinationFile));
+            case CHANGED -> metrics.run(WRITE, () -> writeOutputFile(job.destinationFile, job.output));
+        }
+        if (job.outcome == Outcome.UNCHANGED || job.outcome == Outcome.CHANGED) {
+            metrics.countAnalyzedFile();
+            if (cache != null) {
+                // A file copied unchanged has the same bytes as its source.
+                String outputHash = job.outcome == Outcome.UNCHANGED ? job.contentHash
+                        : AnalysisCache.hash(job.output.getBytes(StandardCharsets.UTF_8));
+                cache.store(job.fileName, new CacheEntry(job.contentHash, cache.getConfigHash(),
+                        job.findings, outputHash));
+            }
+        }
+        if (compactFindings != null) {
+            compactFindings.add(job.fileName, job.findings);
+        }
+    }
+
+    /**
+     * Checks whether the destination file is the output recorded in the entry. A file that is missing
+     * or has been modified since the last run must be analyzed again.
+     *
+     * @param destinationFile the destination file
+     * @param entry the entry
+     * @return boolean
+     */
+    private static boolean isOutputOf(Path destinationFile, CacheEntry entry) {
+        if (entry.getOutputHash() == null || !Files.isRegularFile(destinationFile)) {
+            return false;
+        }
+        try {
+            return entry.getOutputHash().equals(AnalysisCache.hash(Files.readAllBytes(destinationFile)));
+        } catch (IOException e) {
+            throw generateException(e);
+        }
+    }
+
+    /**
+     * What is written for a file: a copy of the source, the output of the previous run, or a new output.
+     */
+    private enum Outcome {
+        SKIPPED, REUSED, UNCHANGED, CHANGED
+    }
+
+    /**
+     * The state of a file passed from one step of its analysis to the next.
+     */
+    private static class FileJob {
+        private final String fileName;
+        private String sourceFilePath;
+        private Path destinationFile;
+        private ConfigSnapshot config;
+        private String contentHash;
+        private String sourceCode;
+        private CompilationUnit cu;
+        private List<Finding> findings = List.of();
+        private String output;
+        private Outcome outcome;
+
+        private FileJob(String fileName) {
+            this.fileName = fileName;
+        }
+    }
+
+}
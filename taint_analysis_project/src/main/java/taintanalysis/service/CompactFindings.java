@@ -0,0 +1,141 @@
+package taintanalysis.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1> CompactFindings </h1>
+ *
+ * This class keeps the sanitized calls of all the analyzed files in the bounded-memory mode, once their trees
+ * have been released. Each call is reduced to five integers stored in a single array: the file, the line and
+ * the column of the call, the source and the sanitizer. The names of the files, sources and sanitizers are stored
+ * once and referred to by their position, so the memory used grows by a few bytes for each call.
+ * Findings can be added by several workers at the same time.
+ */
+public class CompactFindings {
+
+    private static final int FILE = 0;
+    private static final int LINE = 1;
+    private static final int COLUMN = 2;
+    private static final int SOURCE = 3;
+    private static final int SANITIZER = 4;
+    private static final int FIELDS = 5;
+
+    private int[] records = new int[FIELDS * 64];
+    private int size;
+    private final List<String> fileNames = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    /**
+     * Adds the sanitized calls of a file.
+     *
+     * @param fileName the file name
+     * @param findings the findings
+     */
+    public synchronized void add(String fileName, List<Finding> findings) {
+        if (findings.isEmpty()) {
+            return;
+        }
+        int fileId = fileNames.size();
+        fileNames.add(fileName);
+        if ((size + findings.size()) * FIELDS > records.length) {
+            records = Arrays.copyOf(records, Math.max(records.length * 2, (size + findings.size()) * FIELDS));
+        }
+        for (Finding finding : findings) {
+            int offset = size * FIELDS;
+            records[offset + FILE] = fileId;
+            records[offset + LINE] = finding.getLine();
+            records[offset + COLUMN] = finding.getColumn();
+            records[offset + SOURCE] = idOf(finding.getSource());
+            records[offset + SANITIZER] = idOf(finding.getSanitizer());
+            size++;
+        }
+    }
+
+    /**
+     * Returns the number of sanitized calls.
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of files with at least one sanitized call.
+     *
+     * @return int
+     */
+    public synchronized int getFileCount() {
+        return fileNames.size();
+    }
+
+    /**
+     * Returns the path of the file of the call in the given position, relative to the source directory.
+     *
+     * @param index the index
+     * @return string
+     */
+    public synchronized String getFileName(int index) {
+        return fileNames.get(field(index, FILE));
+    }
+
+    /**
+     * Returns the line of the call in the given position.
+     *
+     * @param index the index
+     * @return int
+     */
+    public synchronized int getLine(int index) {
+        return field(index, LINE);
+    }
+
+    /**
+     * Returns the column of the call in the given position.
+     *
+     * @param index the index
+     * @return int
+     */
+    public synchronized int getColumn(int index) {
+        return field(index, COLUMN);
+    }
+
+    /**
+     * Returns the name of the external source of the call in the given position.
+     *
+     * @param index the index
+     * @return string
+     */
+    public synchronized String getSource(int index) {
+        return names.get(field(index, SOURCE));
+    }
+
+    /**
+     * Returns the sanitization method applied to the call in the given position.
+     *
+     * @param index the index
+     * @return string
+     */
+    public synchronized String getSanitizer(int index) {
+        return names.get(field(index, SANITIZER));
+    }
+
+    private int field(int index, int field) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return records[index * FIELDS + field];
+    }
+
+    private int idOf(String name) {
+        return nameIds.computeIfAbsent(name, key -> {
+            names.add(key);
+            return names.size() - 1;
+        });
+    }
+
+}
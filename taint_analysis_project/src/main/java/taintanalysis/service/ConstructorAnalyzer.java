@@ -1,9 +1,9 @@
 package taintanalysis.service;
 
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.expr.*;
-import taintanalysis.config.ConstructorInfo;
+import com.github.javaparser.ast.type.Type;
+import taintanalysis.utils.SymbolResolution;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,17 +30,15 @@ public class ConstructorAnalyzer {
     }
 
     /**
-     * Find the variable declaration in the context of the CompilationUnit.
+     * Find the variable declaration visible from the NameExpr in the CompilationUnit.
      *
      * @param nameExpr the name expr
      * @param cu the cu
      * @return optional string
      */
     private Optional<String> resolveVariableType(NameExpr nameExpr, CompilationUnit cu) {
-        return cu.findAll(VariableDeclarator.class).stream()
-                .filter(declarator -> declarator.getNameAsString().equals(nameExpr.getNameAsString()))
-                .map(declarator -> declarator.getType().asString())
-                .findFirst();
+        return ScopeSymbolTable.of(cu).findVariableType(nameExpr, nameExpr.getNameAsString())
+                .map(Type::asString);
     }
 
     /**
@@ -50,7 +48,7 @@ public class ConstructorAnalyzer {
      * @param parameterTypes the parameter types
      */
     private void argAsNameExpr(NameExpr arg, List<String> parameterTypes) {
-        parameterTypes.add(arg.calculateResolvedType().describe());
+        parameterTypes.add(SymbolResolution.typeOf(arg).describe());
     }
 
     /**
@@ -60,7 +58,7 @@ public class ConstructorAnalyzer {
      * @param parameterTypes the parameter types
      */
     private void argAsLiteralExpr(LiteralExpr arg, List<String> parameterTypes) {
-        parameterTypes.add(arg.calculateResolvedType().describe());
+        parameterTypes.add(SymbolResolution.typeOf(arg).describe());
     }
 
     /**
@@ -72,7 +70,7 @@ public class ConstructorAnalyzer {
      */
     private void argAsObjectCreationExpr(ObjectCreationExpr arg, List<String> parameterTypes, CompilationUnit cu) {
         analyzeConstructorDetails(arg, parameterTypes, cu);
-        parameterTypes.add(arg.getType().resolve().describe());
+        parameterTypes.add(SymbolResolution.typeOf(arg.getType()).describe());
     }
 
     /**
@@ -92,7 +90,7 @@ public class ConstructorAnalyzer {
                                 obj -> {
                                     String objAndMethod = obj + ".".concat(arg.getNameAsString()) + "()";
                                     parameterTypes.add(objAndMethod);
-                                    parameterTypes.add(arg.resolve().getReturnType().describe());
+                                    parameterTypes.add(SymbolResolution.methodOf(arg).getReturnType().describe());
                                 },
                                 () -> {
                                     System.out.println("Unable to solve type for: " + instance.getName());
@@ -119,7 +117,7 @@ public class ConstructorAnalyzer {
         String field = fieldAccessExpr.getNameAsString();
         String classAndField = className.toString() + ".".concat(field);
         parameterTypes.add(classAndField);
-        parameterTypes.add(fieldAccessExpr.resolve().getType().describe());
+        parameterTypes.add(SymbolResolution.fieldOf(fieldAccessExpr).getType().describe());
     }
 
     /**
@@ -147,17 +145,4 @@ public class ConstructorAnalyzer {
         }
     }
 
-    /**
-     * It performs checks on the size and types of parameters passed,
-     * to both the external source constructor in the user code and the constructor in the configuration file.
-     *
-     * @param constructor the constructor
-     * @param constructorArgs the constructor args
-     * @return boolean
-     */
-    public boolean matchesConstructor(ConstructorInfo constructor, List<String> constructorArgs) {
-        return constructor.getParameterTypes().size() == constructorArgs.size() &&
-                constructor.getParameterTypes().equals(constructorArgs);
-    }
-
 }
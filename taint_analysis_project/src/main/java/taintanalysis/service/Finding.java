@@ -0,0 +1,89 @@
+package taintanalysis.service;
+
+/**
+ * <h1> Finding </h1>
+ *
+ * It is used to record a call to an untrusted external source that has been wrapped with a sanitization method.
+ */
+public class Finding {
+    private final int line;
+    private final int column;
+    private final String className;
+    private final String method;
+    private final String source;
+    private final String sanitizer;
+
+    /**
+     * Instantiates a new Finding.
+     *
+     * @param line the line
+     * @param column the column
+     * @param className the class name
+     * @param method the method
+     * @param source the source
+     * @param sanitizer the sanitizer
+     */
+    public Finding(int line, int column, String className, String method, String source, String sanitizer) {
+        this.line = line;
+        this.column = column;
+        this.className = className;
+        this.method = method;
+        this.source = source;
+        this.sanitizer = sanitizer;
+    }
+
+    /**
+     * Returns the line of the call in the source file.
+     *
+     * @return int
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns the column of the call in the source file.
+     *
+     * @return int
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the resolved class of the instance invoking the method.
+     *
+     * @return string
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Returns the name of the invoked method.
+     *
+     * @return string
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the name of the external source.
+     *
+     * @return string
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the sanitization method applied to the call.
+     *
+     * @return string
+     */
+    public String getSanitizer() {
+        return sanitizer;
+    }
+
+}
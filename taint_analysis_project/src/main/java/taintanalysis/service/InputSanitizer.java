@@ -1,61 +1,70 @@
 package taintanalysis.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.TextNode;
-import org.apache.commons.collections4.CollectionUtils;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.safety.Safelist;
 import org.xml.sax.InputSource;
-import taintanalysis.config.ConfigLoader;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.StringWriter;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.regex.Pattern;
 
 /**
  * <h1> InputSanitizer </h1>
  *
  * This class is used to provide sanitization methods to be applied to untrusted input data.
+ * The regular expressions are compiled once, and the steps that remove single characters,
+ * limit the length and collapse the spaces are applied by scanning the input instead of using a regular expression.
+ * The sanitization of streams, API responses and remote service calls is also available for readers and input streams,
+ * see {@link SanitizingReader}.
  */
 public class InputSanitizer {
 
-    /**
-     * Map the name of the external data source to a specific sanitization method.
-     *
-     * @return map string string
-     */
-    public Map<String, String> creationMapping() {
-        Map<String, String> sanitizationMethods = new HashMap<>();
-        List<String> inputSources = ConfigLoader.getInstance().getUntrustedSources();
-
-        if (CollectionUtils.isNotEmpty(inputSources)) {
-            for (String source : inputSources) {
-                String methodName = "sanitize" + capitalizeFirstLetter(source);
-                sanitizationMethods.put(source, "InputSanitizer." + methodName);
-            }
-        }
-        return sanitizationMethods;
-    }
-
-    /**
-     * If the input string is not null, set its first letter to uppercase.
-     *
-     * @param input the input
-     * @return string
-     */
-    private String capitalizeFirstLetter(String input) {
-        if (input == null || input.isEmpty()) {
-            return input;
-        }
-        return input.substring(0, 1).toUpperCase() + input.substring(1);
-    }
+    private static final Pattern SCRIPTS = Pattern.compile("(?i)(<script.*?>.*?</script>|javascript:|on\\w+=)");
+    private static final Pattern SQL_KEYWORDS = Pattern.compile("(?i)(DROP|SELECT|INSERT|DELETE|UPDATE|TABLE|FROM|WHERE|--|;|\\*|=)");
+    private static final Pattern TRAVERSAL = Pattern.compile("(\\.\\./|\\.\\.\\\\)");
+    private static final Pattern PATHS = Pattern.compile("(\\.{2,}/|\\.{2,}\\\\|~|/|\\\\)");
+    private static final Pattern SHELL_KEYWORDS = Pattern.compile("(?i)(rm -rf|sudo|chmod|chown|kill|shutdown|reboot|mkfs|dd|ps|grep)");
+    private static final Pattern HTML_COMMENTS = Pattern.compile("<!--.*?-->");
+    private static final Pattern DANGEROUS_SCHEMES = Pattern.compile("(?i)mailto:|javascript:|data:|file:");
+    private static final Pattern LINKS = Pattern.compile("(https?|ftp)://[^\\s]+");
+    private static final Pattern PARENT_PATHS = Pattern.compile("\\.\\./");
+
+    private static final boolean[] USER_INPUT_CHARS = allowedChars("[^a-zA-Z0-9 .,!?@#%&()_-]");
+    private static final boolean[] BASIC_CHARS = allowedChars("[^a-zA-Z0-9 .,!?@#%&()\\[\\]{}:;\"'-_+|/\\\\]");
+    private static final boolean[] EMAIL_CHARS = allowedChars("[^a-zA-Z0-9@._%+\\-\\s]");
+    private static final boolean[] FILE_NAME_CHARS = allowedChars("[^a-zA-Z0-9._-]");
+    private static final boolean[] SHELL_SYMBOLS = removedChars("[$`|;&<>*?!\"']");
+    private static final boolean[] ESCAPE_SYMBOLS = removedChars("[\\\\%$<>`|;{}\\[\\]]");
+    private static final boolean[] QUOTES_AND_BRACKETS = removedChars("[<>\\\"\\']");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ThreadLocal<SAXParser> XML_PARSERS = ThreadLocal.withInitial(InputSanitizer::newXmlParser);
+
+    private static final int STREAM_INPUT_MAX_LENGTH = 4096;
+    private static final int API_RESPONSE_MAX_LENGTH = 4096;
+    private static final int REMOTE_SERVICE_CALL_MAX_LENGTH = 2048;
+
+    private static final String[] RESERVED_NAMES = {
+            "CON", "PRN", "AUX", "NUL",
+            "COM1", "COM2", "COM3", "COM4", "COM5", "COM6", "COM7", "COM8", "COM9",
+            "LPT1", "LPT2", "LPT3", "LPT4", "LPT5", "LPT6", "LPT7", "LPT8", "LPT9"
+    };
 
     /**
      * Applies sanitization of user-supplied input.
@@ -69,26 +78,19 @@ public class InputSanitizer {
         }
 
         // Step 1: Remove HTML tags to prevent XSS.
-        input = input.replaceAll("<[^>]*>", "");
+        input = removeTags(input);
 
         // Step 2: Remove potentially hidden scripts and JS codes.
-        input = input.replaceAll("(?i)(<script.*?>.*?</script>|javascript:|on\\w+=)", "");
+        input = SCRIPTS.matcher(input).replaceAll("");
 
         // Step 3: Remove SQL keywords to prevent SQL Injection.
-        input = input.replaceAll("(?i)(DROP|SELECT|INSERT|DELETE|UPDATE|TABLE|FROM|WHERE|--|;|\\*|=)", "");
-
-        // Step 4: Block unsafe special characters.
-        input = input.replaceAll("[^a-zA-Z0-9 .,!?@#%&()_-]", "");
+        input = SQL_KEYWORDS.matcher(input).replaceAll("");
 
-        // Step 5: Normalizes suspicious Unicode sequences.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+        // Step 4: Block unsafe special characters, limiting the maximum length of the input.
+        // Only ASCII characters are kept, so the NFKC normalization that followed this step cannot change them.
+        input = retainChars(input, USER_INPUT_CHARS, 1024);
 
-        // Step 6: Limits the maximum length of the input.
-        if (input.length() > 1024) {
-            input = input.substring(0, 1024);
-        }
-
-        // Step 7: Trim and remove excess spaces.
+        // Step 5: Trim and remove excess spaces.
         return input.strip();
     }
 
@@ -103,34 +105,72 @@ public class InputSanitizer {
             return "";
         }
 
-        // Step 1: Remove null characters or unprintable bytes.
-        input = input.replaceAll("\\p{Cntrl}", "");
+        // Steps 1-7: Apply the rules that work on the characters of the input.
+        input = applyStreamInputRules(input);
 
-        // Step 2: Remove HTML or XML tags.
-        input = input.replaceAll("<[^>]*>", "");
+        // Step 8: Limits the maximum length of the input, then trim and remove multiple spaces.
+        return collapseSpaces(input, STREAM_INPUT_MAX_LENGTH);
+    }
 
-        // Step 3: Normalize Unicode sequences.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+    /**
+     * It applies sanitization to the input stream, reading it chunk by chunk.
+     *
+     * @param input the input
+     * @return reader
+     */
+    public static Reader sanitizeStreamInput(Reader input) {
+        return new SanitizingReader(input, InputSanitizer::sanitizeStreamInput,
+                InputSanitizer::applyStreamInputRules, STREAM_INPUT_MAX_LENGTH);
+    }
+
+    /**
+     * It applies sanitization to the input stream, reading it chunk by chunk as UTF-8 text.
+     *
+     * @param input the input
+     * @return input stream
+     */
+    public static InputStream sanitizeStreamInput(InputStream input) {
+        return new SanitizingInputStream(sanitizeStreamInput(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Applies the steps of the input stream sanitization that do not depend on the length of the whole input.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String applyStreamInputRules(String input) {
+        // Steps 1-3: Remove the control characters and the tags, then normalize the input.
+        input = prepareStreamInput(input);
 
         // Step 4: Remove scripts, dangerous URIs, and other suspicious patterns.
-        input = input.replaceAll("(?i)(<script.*?>.*?</script>|javascript:|on\\w+=)", "");
+        input = SCRIPTS.matcher(input).replaceAll("");
 
         // Step 5: Blocks SQL keywords and malicious symbols.
-        input = input.replaceAll("(?i)(DROP|SELECT|INSERT|DELETE|UPDATE|TABLE|FROM|WHERE|--|;|\\*|=)", "");
+        input = SQL_KEYWORDS.matcher(input).replaceAll("");
 
         // Step 6: Keep only alphanumeric characters and basic symbols.
-        input = input.replaceAll("[^a-zA-Z0-9 .,!?@#%&()\\[\\]{}:;\"'-_+|/\\\\]", "");
+        input = retainChars(input, BASIC_CHARS, Integer.MAX_VALUE);
 
         // Step 7: Remove traversal directory sequences.
-        input = input.replaceAll("(\\.\\./|\\.\\.\\\\)", "");
+        return TRAVERSAL.matcher(input).replaceAll("");
+    }
 
-        // Step 8: Limits the maximum length of the input.
-        if (input.length() > 4096) {
-            input = input.substring(0, 4096);
-        }
+    /**
+     * Applies the steps of the input stream sanitization that precede the removal of scripts.
+     *
+     * @param input the input
+     * @return string
+     */
+    static String prepareStreamInput(String input) {
+        // Step 1: Remove null characters or unprintable bytes.
+        input = removeControlChars(input);
+
+        // Step 2: Remove HTML or XML tags.
+        input = removeTags(input);
 
-        // Step 9: Trim and remove multiple spaces.
-        return input.replaceAll("\\s+", " ").strip();
+        // Step 3: Normalize Unicode sequences.
+        return normalize(input);
     }
 
     /**
@@ -145,30 +185,25 @@ public class InputSanitizer {
         }
 
         // Step 1: Remove null characters or unprintable bytes.
-        input = input.replaceAll("\\p{Cntrl}", "");
+        input = removeControlChars(input);
 
         // Step 2: Normalizes Unicode sequences to avoid spoofing.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+        input = normalize(input);
 
         // Step 3: Block traversal directories and absolute paths.
-        input = input.replaceAll("(\\.{2,}/|\\.{2,}\\\\|~|/|\\\\)", "");
+        input = PATHS.matcher(input).replaceAll("");
 
         // Step 4: Remove suspicious shell-specific keywords.
-        input = input.replaceAll("(?i)(rm -rf|sudo|chmod|chown|kill|shutdown|reboot|mkfs|dd|ps|grep)", "");
+        input = SHELL_KEYWORDS.matcher(input).replaceAll("");
 
         // Step 5: Lock shell-specific sequences and symbols.
-        input = input.replaceAll("([$`|;&<>*?!\"'])", "");
+        input = removeChars(input, SHELL_SYMBOLS);
 
         // Step 6: Keep only alphanumeric characters and basic symbols.
-        input = input.replaceAll("[^a-zA-Z0-9 .,!?@#%&()\\[\\]{}:;\"'-_+|/\\\\]", "");
-
-        // Step 7: Limits the maximum length of the input.
-        if (input.length() > 1024) {
-            input = input.substring(0, 1024);
-        }
+        input = retainChars(input, BASIC_CHARS, Integer.MAX_VALUE);
 
-        // Step 8: Remove multiple spaces and trim.
-        return input.replaceAll("\\s+", " ").strip();
+        // Step 7: Limits the maximum length of the input, then remove multiple spaces and trim.
+        return collapseSpaces(input, 1024);
     }
 
     /**
@@ -183,17 +218,19 @@ public class InputSanitizer {
         }
 
         // Limits the length of the input.
-        if (input.length() > 4096) {
+        if (input.length() > API_RESPONSE_MAX_LENGTH) {
             throw new IllegalArgumentException("API response too large.");
         }
 
+        String trimmed = input.trim();
+
         // If the format is JSON, validate and clean up.
-        if (input.trim().startsWith("{") && input.trim().endsWith("}")) {
+        if (trimmed.startsWith("{") && trimmed.endsWith("}")) {
             return sanitizeJson(input);
         }
 
         // If the format is XML or HTML, use a library to parse and clean.
-        if (input.trim().startsWith("<") && input.trim().endsWith(">")) {
+        if (trimmed.startsWith("<") && trimmed.endsWith(">")) {
             return sanitizeHtmlOrXml(input);
         }
 
@@ -201,6 +238,28 @@ public class InputSanitizer {
         return sanitizeString(input);
     }
 
+    /**
+     * It applies sanitization to the responses provided by the API, reading them from a stream.
+     * The response is buffered up to the maximum length allowed, and a longer response causes an I/O error.
+     *
+     * @param input the input
+     * @return reader
+     */
+    public static Reader sanitizeApiResponse(Reader input) {
+        return new SanitizingReader(input, InputSanitizer::sanitizeApiResponse, API_RESPONSE_MAX_LENGTH,
+                "API response too large.");
+    }
+
+    /**
+     * It applies sanitization to the responses provided by the API, reading them from a stream of UTF-8 text.
+     *
+     * @param input the input
+     * @return input stream
+     */
+    public static InputStream sanitizeApiResponse(InputStream input) {
+        return new SanitizingInputStream(sanitizeApiResponse(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
     /**
      * Applies sanitization to input with Json syntax.
      *
@@ -208,46 +267,57 @@ public class InputSanitizer {
      * @return string
      */
     private static String sanitizeJson(String json) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode rootNode = objectMapper.readTree(json);
-
-            sanitizeJsonNode(rootNode);
-
-            return objectMapper.writeValueAsString(rootNode);
-        } catch (Exception e) {
+        String sanitized = sanitizeJsonTokens(json);
+        if (sanitized == null) {
             throw new IllegalArgumentException("Invalid JSON input.");
         }
+        return sanitized;
     }
 
     /**
-     * Applies sanitization to Json format nodes.
+     * Copies the first Json value of the input token by token, sanitizing the strings contained in objects and arrays.
+     * Field names, and a string which is the whole value, are copied as they are.
      *
-     * @param node the json node
-     * @return string
+     * @param json the json
+     * @return string, or null if the input does not have the syntax of the Json format
      */
-    private static void sanitizeJsonNode(JsonNode node) {
-        if (node.isObject()) {
-            ObjectNode objectNode = (ObjectNode) node;
-            objectNode.fields().forEachRemaining(entry -> {
-                JsonNode childNode = entry.getValue();
-                if (childNode.isTextual()) {
-                    objectNode.put(entry.getKey(), sanitizeString(childNode.asText()));
-                } else if (childNode.isContainerNode()) {
-                    sanitizeJsonNode(childNode);
-                }
-            });
-        } else if (node.isArray()) {
-            ArrayNode arrayNode = (ArrayNode) node;
-            for (int i = 0; i < arrayNode.size(); i++) {
-                JsonNode childNode = arrayNode.get(i);
-                if (childNode.isTextual()) {
-                    arrayNode.set(i, new TextNode(sanitizeString(childNode.asText())));
-                } else if (childNode.isContainerNode()) {
-                    sanitizeJsonNode(childNode);
+    private static String sanitizeJsonTokens(String json) {
+        var writer = new StringWriter();
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                // An input without any value is written as an empty Json value.
+                generator.writeNull();
+            }
+            int depth = 0;
+            while (token != null) {
+                switch (token) {
+                    case START_OBJECT:
+                    case START_ARRAY:
+                        depth++;
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        depth--;
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case VALUE_STRING:
+                        generator.writeString(depth > 0 ? sanitizeString(parser.getText()) : parser.getText());
+                        break;
+                    case VALUE_NUMBER_FLOAT:
+                        generator.writeNumber(parser.getDoubleValue());
+                        break;
+                    default:
+                        generator.copyCurrentEvent(parser);
                 }
+                token = depth > 0 ? parser.nextToken() : null;
             }
+        } catch (Exception e) {
+            return null;
         }
+        return writer.toString();
     }
 
     /**
@@ -279,6 +349,9 @@ public class InputSanitizer {
 
     /**
      * Applies sanitization to responses obtained from a call to a remote service.
+     * The brackets, braces, angle brackets and percent signs are removed in step 3, before the format is detected,
+     * so Json objects and arrays, XML documents and their URL-encoded forms never reach step 5 with their structure:
+     * only scalar Json values (strings, numbers, true, false and null) are sanitized as Json.
      *
      * @param input the input
      * @return string
@@ -288,73 +361,143 @@ public class InputSanitizer {
             return "";
         }
 
+        // Steps 1-4: Remove control characters and escape sequences, then decode the input.
+        input = decodeRemoteServiceCall(input);
+
+        // Step 5: Validates and sanitizes specific formats such as JSON or XML.
+        switch (detectFormat(input)) {
+            case JSON:
+                String json = sanitizeJsonTokens(input);
+                input = json != null ? json : input;
+                break;
+            case XML:
+                input = isXml(input) ? sanitizeHtmlOrXml(input) : input;
+                break;
+            default:
+                break;
+        }
+
+        // Step 6: Keep only alphanumeric characters and basic symbols.
+        input = retainChars(input, BASIC_CHARS, Integer.MAX_VALUE);
+
+        // Step 7: Limit the length of the input to prevent DoS, then remove multiple spaces and trim.
+        return collapseSpaces(input, REMOTE_SERVICE_CALL_MAX_LENGTH);
+    }
+
+    /**
+     * Applies sanitization to responses obtained from a call to a remote service, reading them chunk by chunk.
+     * Responses longer than the lookahead window of the reader are not validated as JSON or XML,
+     * since that would require the whole response: only the rules on their characters are applied.
+     *
+     * @param input the input
+     * @return reader
+     */
+    public static Reader sanitizeRemoteServiceCall(Reader input) {
+        return new SanitizingReader(input, InputSanitizer::sanitizeRemoteServiceCall,
+                chunk -> retainChars(decodeRemoteServiceCall(chunk), BASIC_CHARS, Integer.MAX_VALUE),
+                REMOTE_SERVICE_CALL_MAX_LENGTH);
+    }
+
+    /**
+     * Applies sanitization to responses obtained from a call to a remote service, reading them as UTF-8 text.
+     *
+     * @param input the input
+     * @return input stream
+     */
+    public static InputStream sanitizeRemoteServiceCall(InputStream input) {
+        return new SanitizingInputStream(sanitizeRemoteServiceCall(new InputStreamReader(input, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Applies the first steps of the sanitization of the responses obtained from a call to a remote service.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String decodeRemoteServiceCall(String input) {
         // Step 1: Remove control characters (non-printable bytes).
-        input = input.replaceAll("\\p{Cntrl}", "");
+        input = removeControlChars(input);
 
         // Step 2: Normalizes input to prevent Unicode spoofing.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+        input = normalize(input);
 
         // Step 3: Remove harmful or unnecessary escape sequences.
-        input = input.replaceAll("([\\\\%$<>`|;{}\\[\\]])", "");
+        input = removeChars(input, ESCAPE_SYMBOLS);
 
         // Step 4: Decodes encoded input (e.g., URL or Base64) securely.
         try {
-            input = java.net.URLDecoder.decode(input, "UTF-8");
+            input = URLDecoder.decode(input, StandardCharsets.UTF_8);
         } catch (Exception e) {
             // It ignores decoding errors, which means that the input was not encoded.
         }
-
-        // Step 5: Validates and sanitizes specific formats such as JSON or XML.
-        if (isJson(input)) {
-            input = sanitizeJson(input);
-        } else if (isXml(input)) {
-            input = sanitizeHtmlOrXml(input);
-        }
-
-        // Step 6: Keep only alphanumeric characters and basic symbols.
-        input = input.replaceAll("[^a-zA-Z0-9 .,!?@#%&()\\[\\]{}:;\"'-_+|/\\\\]", "");
-
-        // Step 7: Limit the length of the input to prevent DoS.
-        if (input.length() > 2048) {
-            input = input.substring(0, 2048);
-        }
-
-        // Step 8: Remove multiple spaces and trim.
-        return input.replaceAll("\\s+", " ").strip();
+        return input;
     }
 
     /**
-     * Verifies that the input provided has the syntax of the Json format.
+     * Detects the format that the input can have from its first character which is not a space.
+     * An input without such a character is treated as an empty Json value.
+     * When called by {@link #sanitizeRemoteServiceCall(String)}, the input no longer contains '{', '[' or '<',
+     * so only scalar Json values are detected as Json and nothing is detected as XML.
      *
      * @param input the input
-     * @return string
+     * @return format
      */
-    private static boolean isJson(String input) {
-        try {
-            new ObjectMapper().readTree(input);
-            return true;
-        } catch (Exception e) {
-            return false;
+    private static Format detectFormat(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '<') {
+                return Format.XML;
+            }
+            if (c == '{' || c == '[' || c == '"' || c == '-' || (c >= '0' && c <= '9')
+                    || c == 't' || c == 'f' || c == 'n') {
+                return Format.JSON;
+            }
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return Format.TEXT;
+            }
         }
+        return Format.JSON;
     }
 
     /**
      * Verifies that the input provided has the syntax of the XML format.
+     * The input is only scanned for well-formedness, using a parser reused by the current thread.
      *
      * @param input the input
      * @return string
      */
     private static boolean isXml(String input) {
+        SAXParser parser = XML_PARSERS.get();
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            builder.parse(new InputSource(new StringReader(input)));
+            parser.parse(new InputSource(new StringReader(input)), new DefaultHandler());
             return true;
         } catch (Exception e) {
             return false;
+        } finally {
+            parser.reset();
         }
     }
 
+    /**
+     * Creates a parser used to verify the syntax of the XML format.
+     *
+     * @return sax parser
+     */
+    private static SAXParser newXmlParser() {
+        try {
+            return SAXParserFactory.newInstance().newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("XML parser not available.", e);
+        }
+    }
+
+    /**
+     * Formats of the input recognized by the sanitization of structured data.
+     */
+    private enum Format {
+        JSON, XML, TEXT
+    }
+
     /**
      * Applies sanitization to input provided by an e-mail.
      *
@@ -367,36 +510,31 @@ public class InputSanitizer {
         }
 
         // Step 1: Remove control characters (non-printable bytes).
-        input = input.replaceAll("\\p{Cntrl}", "");
+        input = removeControlChars(input);
 
-            // Step 2: Normalizes input to prevent Unicode spoofing.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+        // Step 2: Normalizes input to prevent Unicode spoofing.
+        input = normalize(input);
 
         // Step 3: Remove HTML scripts, tags, and comments.
-        input = input.replaceAll("<!--.*?-->", "");
-        input = input.replaceAll("<[^>]*>", "");
+        input = HTML_COMMENTS.matcher(input).replaceAll("");
+        input = removeTags(input);
 
         // Step 4: Decoding encoded input (e.g., URLs).
         try {
-            input = java.net.URLDecoder.decode(input, "UTF-8");
+            input = URLDecoder.decode(input, StandardCharsets.UTF_8);
         } catch (Exception e) {
             // Ignore decoding errors.
         }
 
         // Step 5: Remove malicious email addresses or links.
-        input = input.replaceAll("(?i)mailto:|javascript:|data:|file:", "");
-        input = input.replaceAll("(https?|ftp)://[^\\s]+", "");
+        input = DANGEROUS_SCHEMES.matcher(input).replaceAll("");
+        input = LINKS.matcher(input).replaceAll("");
 
         // Step 6: Keep only acceptable alphanumeric characters and symbols.
-        input = input.replaceAll("[^a-zA-Z0-9@._%+\\-\\s]", "");
+        input = retainChars(input, EMAIL_CHARS, Integer.MAX_VALUE);
 
-        // Step 7: Validates the length of the input.
-        if (input.length() > 512) {
-            input = input.substring(0, 512);
-        }
-
-        // Step 8: Remove multiple spaces and trim.
-        return input.replaceAll("\\s+", " ").strip();
+        // Step 7: Validates the length of the input, then remove multiple spaces and trim.
+        return collapseSpaces(input, 512);
     }
 
     /**
@@ -410,7 +548,7 @@ public class InputSanitizer {
             return "";
         }
         // Removes potentially dangerous characters.
-        return input.replaceAll("[<>\\\"\\']", "").strip();
+        return removeChars(input, QUOTES_AND_BRACKETS).strip();
     }
 
     /**
@@ -425,38 +563,242 @@ public class InputSanitizer {
         }
 
         // Step 1: Remove control characters (non-printable bytes).
-        input = input.replaceAll("\\p{Cntrl}", "");
+        input = removeControlChars(input);
 
         // Step 2: Normalizes input to prevent Unicode spoofing.
-        input = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFKC);
+        input = normalize(input);
 
         // Step 3: Remove relative paths and unsafe characters.
-        input = input.replaceAll("\\.\\./", "")
-                .replaceAll("\\\\", "/");
-
-        // Step 4: Keep only valid characters for file names.
-        input = input.replaceAll("[^a-zA-Z0-9._-]", "");
+        input = PARENT_PATHS.matcher(input).replaceAll("")
+                .replace('\\', '/');
 
-        // Step 5: Limits the length of the file name.
-        if (input.length() > 255) {
-            input = input.substring(0, 255);
-        }
+        // Step 4: Keep only valid characters for file names, limiting the length of the file name.
+        input = retainChars(input, FILE_NAME_CHARS, 255);
 
-        // Step 6: Remove reserved file names (example: Windows).
-        String[] reservedNames = {
-                "CON", "PRN", "AUX", "NUL",
-                "COM1", "COM2", "COM3", "COM4", "COM5", "COM6", "COM7", "COM8", "COM9",
-                "LPT1", "LPT2", "LPT3", "LPT4", "LPT5", "LPT6", "LPT7", "LPT8", "LPT9"
-        };
-        for (String reserved : reservedNames) {
+        // Step 5: Remove reserved file names (example: Windows).
+        for (String reserved : RESERVED_NAMES) {
             if (input.equalsIgnoreCase(reserved)) {
                 throw new IllegalArgumentException("Invalid file name: reserved name.");
             }
         }
 
-        // Step 7: Remove unnecessary spaces and return the result.
+        // Step 6: Remove unnecessary spaces and return the result.
         return input.strip();
     }
 
-}
+    /**
+     * Builds the table of the ASCII characters kept by a negated character class.
+     * Characters outside the ASCII range are never kept, as none of the classes used by this class include them.
+     *
+     * @param negatedClass the negated class
+     * @return boolean array
+     */
+    private static boolean[] allowedChars(String negatedClass) {
+        boolean[] removed = removedChars(negatedClass);
+        boolean[] allowed = new boolean[removed.length];
+        for (int c = 0; c < removed.length; c++) {
+            allowed[c] = !removed[c];
+        }
+        return allowed;
+    }
+
+    /**
+     * Builds the table of the ASCII characters matched by a character class.
+     *
+     * @param characterClass the character class
+     * @return boolean array
+     */
+    private static boolean[] removedChars(String characterClass) {
+        Pattern pattern = Pattern.compile(characterClass);
+        boolean[] table = new boolean[128];
+        for (int c = 0; c < table.length; c++) {
+            table[c] = pattern.matcher(String.valueOf((char) c)).matches();
+        }
+        return table;
+    }
+
+    /**
+     * Keeps only the characters allowed by the table, stopping once the maximum length has been reached.
+     *
+     * @param input the input
+     * @param allowed the allowed
+     * @param maxLength the max length
+     * @return string
+     */
+    private static String retainChars(String input, boolean[] allowed, int maxLength) {
+        int length = input.length();
+        int i = 0;
+        while (i < length && i < maxLength && inTable(input.charAt(i), allowed)) {
+            i++;
+        }
+        if (i == length) {
+            return input;
+        }
+
+        StringBuilder result = new StringBuilder(Math.min(length, maxLength));
+        result.append(input, 0, i);
+        for (; i < length && result.length() < maxLength; i++) {
+            char c = input.charAt(i);
+            if (inTable(c, allowed)) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Removes the ASCII characters marked in the table.
+     *
+     * @param input the input
+     * @param removed the removed
+     * @return string
+     */
+    private static String removeChars(String input, boolean[] removed) {
+        int length = input.length();
+        int i = 0;
+        while (i < length && !inTable(input.charAt(i), removed)) {
+            i++;
+        }
+        if (i == length) {
+            return input;
+        }
+
+        StringBuilder result = new StringBuilder(length);
+        result.append(input, 0, i);
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (!inTable(c, removed)) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks whether the character is an ASCII character marked in the table.
+     *
+     * @param c the character
+     * @param table the table
+     * @return boolean
+     */
+    private static boolean inTable(char c, boolean[] table) {
+        return c < table.length && table[c];
+    }
+
+    /**
+     * Removes control characters (U+0000 to U+001F and U+007F), as the \p{Cntrl} class does.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String removeControlChars(String input) {
+        int length = input.length();
+        int i = 0;
+        while (i < length && !isControl(input.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return input;
+        }
+
+        StringBuilder result = new StringBuilder(length);
+        result.append(input, 0, i);
+        for (; i < length; i++) {
+            char c = input.charAt(i);
+            if (!isControl(c)) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks whether the character belongs to the \p{Cntrl} class.
+     *
+     * @param c the character
+     * @return boolean
+     */
+    private static boolean isControl(char c) {
+        return c < 0x20 || c == 0x7F;
+    }
+
+    /**
+     * Removes every sequence that starts with '&lt;' and ends with the next '&gt;', as the &lt;[^&gt;]*&gt; expression does.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String removeTags(String input) {
+        int open = input.indexOf('<');
+        if (open < 0) {
+            return input;
+        }
 
+        StringBuilder result = new StringBuilder(input.length());
+        int from = 0;
+        while (open >= 0) {
+            int close = input.indexOf('>', open + 1);
+            if (close < 0) {
+                break;
+            }
+            result.append(input, from, open);
+            from = close + 1;
+            open = input.indexOf('<', from);
+        }
+        result.append(input, from, input.length());
+        return result.toString();
+    }
+
+    /**
+     * Applies the NFKC normalization, which leaves ASCII text unchanged.
+     *
+     * @param input the input
+     * @return string
+     */
+    private static String normalize(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (input.charAt(i) >= 0x80) {
+                return Normalizer.normalize(input, Normalizer.Form.NFKC);
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Truncates the input to the maximum length, replaces each sequence of whitespace (\s+) with a single space
+     * and removes the leading and trailing whitespace.
+     *
+     * @param input the input
+     * @param maxLength the max length
+     * @return string
+     */
+    private static String collapseSpaces(String input, int maxLength) {
+        int length = Math.min(input.length(), maxLength);
+        StringBuilder result = new StringBuilder(length);
+        boolean inSpaces = false;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (isRegexSpace(c)) {
+                if (!inSpaces) {
+                    result.append(' ');
+                    inSpaces = true;
+                }
+            } else {
+                result.append(c);
+                inSpaces = false;
+            }
+        }
+        return result.toString().strip();
+    }
+
+    /**
+     * Checks whether the character belongs to the \s class.
+     *
+     * @param c the character
+     * @return boolean
+     */
+    static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+}
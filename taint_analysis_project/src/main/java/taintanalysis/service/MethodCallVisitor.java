@@ -7,13 +7,25 @@ import com.github.javaparser.ast.expr.*;
 import com.github.javaparser.ast.stmt.BlockStmt;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.resolution.UnsolvedSymbolException;
+import com.github.javaparser.resolution.types.ResolvedType;
 import taintanalysis.config.ConfigLoader;
+import taintanalysis.config.ConfigSnapshot;
 import taintanalysis.config.Source;
+import taintanalysis.dataflow.InterproceduralAnalysis;
+import taintanalysis.dataflow.SinkMatcher;
+import taintanalysis.dataflow.TaintAnalysis;
+import taintanalysis.events.AnalysisEvents;
+import taintanalysis.events.RuleMatchEvent;
+import taintanalysis.events.SanitizerInsertionEvent;
+import taintanalysis.utils.AnalysisMetrics;
+import taintanalysis.utils.SourceSplicer;
+import taintanalysis.utils.SymbolResolution;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static taintanalysis.error.ErrorCode.generateException;
 
@@ -24,12 +36,74 @@ import static taintanalysis.error.ErrorCode.generateException;
  */
 public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
 
-    private final ConfigLoader configLoader;
+    private final ConfigSnapshot config;
     private final CompilationUnit cu;
+    private final ScopeSymbolTable symbolTable;
+    private final List<Finding> findings = new ArrayList<>();
+    private final List<SourceSplicer.Edit> edits = new ArrayList<>();
+    private final boolean dataflow;
+    private final List<SourceCall> sourceCalls = new ArrayList<>();
 
     public MethodCallVisitor(CompilationUnit cu) {
+        this(cu, false);
+    }
+
+    /**
+     * Instantiates a visitor of the CompilationUnit. With dataflow enabled, the calls to untrusted sources
+     * are collected during the visit and, at its end, only those whose data reaches a sink are sanitized.
+     *
+     * @param cu the cu
+     * @param dataflow the dataflow
+     */
+    public MethodCallVisitor(CompilationUnit cu, boolean dataflow) {
+        this(cu, dataflow, ConfigLoader.getInstance().getSnapshot());
+    }
+
+    /**
+     * Instantiates a visitor of the CompilationUnit that uses the given snapshot of the configuration
+     * for the whole visit, even if the configuration is reloaded meanwhile.
+     *
+     * @param cu the cu
+     * @param dataflow the dataflow
+     * @param config the config
+     */
+    public MethodCallVisitor(CompilationUnit cu, boolean dataflow, ConfigSnapshot config) {
         this.cu = cu;
-        configLoader = ConfigLoader.getInstance();
+        this.dataflow = dataflow;
+        this.config = config;
+        symbolTable = ScopeSymbolTable.of(cu);
+    }
+
+    /**
+     * Returns the calls to untrusted external sources that have been sanitized in the compilation unit.
+     *
+     * @return list finding
+     */
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    /**
+     * Returns the changes made to the text of the compilation unit, one for each sanitized call.
+     *
+     * @return list edit
+     */
+    public List<SourceSplicer.Edit> getEdits() {
+        return edits;
+    }
+
+    /**
+     * It visits the CompilationUnit and, with dataflow enabled, sanitizes the sources whose data reaches a sink.
+     *
+     * @param compilationUnit the compilation unit
+     * @param arg the arg
+     */
+    @Override
+    public void visit(CompilationUnit compilationUnit, Void arg) {
+        super.visit(compilationUnit, arg);
+        if (dataflow) {
+            sanitizeSourcesReachingSinks();
+        }
     }
 
     /**
@@ -51,17 +125,26 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
      */
     private void analyzeMethodCall(MethodCallExpr methodCall, Void arg) {
 
-        if (isNestedMethodCall(methodCall))
+        if (isNestedMethodCall(methodCall)) {
+            AnalysisMetrics.getInstance().countSkippedNestedCall();
             return;
+        }
+
+        // Calls to methods that are not in the configuration are not resolved at all.
+        if (!config.isConfiguredMethod(methodCall.getNameAsString().concat("()"))) {
+            super.visit(methodCall, arg);
+            return;
+        }
 
         methodCall.getScope().ifPresent(scope -> {
             try {
-                if (scope.calculateResolvedType().isReferenceType()) {
-                    String className = scope.calculateResolvedType().describe();
+                ResolvedType scopeType = SymbolResolution.typeOf(scope);
+                if (scopeType.isReferenceType()) {
+                    String className = scopeType.describe();
                     List<String> constructorParameterTypes = new ArrayList<>();
                     boolean staticMethod = false;
 
-                    if (!(methodCall.resolve().isStatic())) {
+                    if (!(SymbolResolution.methodOf(methodCall).isStatic())) {
                         constructorScope(scope, constructorParameterTypes);
                     } else {
                         staticMethod = true;
@@ -113,17 +196,8 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
      * @return optional variable declarator
      */
     private Optional<VariableDeclarator> checkIntoLocalScope(NameExpr nameExpr) {
-        Optional<BlockStmt> blockScope = nameExpr.findAncestor(BlockStmt.class.asSubclass(BlockStmt.class));
-
-        if (blockScope.isPresent()) {
-            Optional<VariableDeclarator> localVariable = blockScope.get().findAll(VariableDeclarator.class).stream()
-                    .filter(v -> v.getNameAsString().equals(nameExpr.getNameAsString()))
-                    .findFirst();
-            if (localVariable.isPresent()) {
-                return localVariable;
-            }
-        }
-        return Optional.empty();
+        return nameExpr.findAncestor(BlockStmt.class)
+                .flatMap(block -> symbolTable.findInBlock(block, nameExpr.getNameAsString()));
     }
 
     /**
@@ -133,11 +207,9 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
      * @return optional variable declarator
      */
     private Optional<VariableDeclarator> checkIntoMethodScope(NameExpr nameExpr) {
-        Optional<MethodDeclaration> methodScope = nameExpr.findAncestor(MethodDeclaration.class);
-        return methodScope.flatMap(methodDeclaration -> methodDeclaration.getBody()
-                .flatMap(body -> body.findAll(VariableDeclarator.class).stream()
-                        .filter(v -> v.getNameAsString().equals(nameExpr.getNameAsString()))
-                        .findFirst()));
+        return nameExpr.findAncestor(MethodDeclaration.class)
+                .flatMap(MethodDeclaration::getBody)
+                .flatMap(body -> symbolTable.findInBlock(body, nameExpr.getNameAsString()));
     }
 
     /**
@@ -148,22 +220,12 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
      * @return optional variable declarator
      */
     private Optional<VariableDeclarator> checkIntoConstructor(NameExpr nameExpr, ClassOrInterfaceDeclaration classScope) {
-        Optional<ConstructorDeclaration> constructor = classScope.findFirst(ConstructorDeclaration.class);
-        if (constructor.isPresent()) {
-            Optional<VariableDeclarator> initializedInConstructor = constructor.get().getBody()
-                    .findAll(AssignExpr.class).stream()
-                    .filter(assign -> assign.getTarget().isNameExpr())
-                    .filter(assign -> assign.getTarget().asNameExpr().getNameAsString().equals(nameExpr.getNameAsString()))
-                    .map(AssignExpr::getValue)
-                    .filter(Expression::isObjectCreationExpr)
-                    .map(Expression::asObjectCreationExpr)
-                    .map(expr -> new VariableDeclarator(expr.getType(), nameExpr.getNameAsString(), expr))
-                    .findFirst();
-            if (initializedInConstructor.isPresent()) {
-                return initializedInConstructor;
-            }
-        }
-        return Optional.empty();
+        return symbolTable.findConstructorAssignment(classScope, nameExpr.getNameAsString())
+                .map(expr -> {
+                    // The declarator becomes the parent of the object creation, detaching it from the assignment.
+                    symbolTable.invalidate(expr);
+                    return new VariableDeclarator(expr.getType(), nameExpr.getNameAsString(), expr);
+                });
     }
 
     /**
@@ -175,10 +237,7 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
     private Optional<VariableDeclarator> checkIntoClassFields(NameExpr nameExpr) {
         Optional<ClassOrInterfaceDeclaration> classScope = nameExpr.findAncestor(ClassOrInterfaceDeclaration.class);
         if (classScope.isPresent()) {
-            Optional<VariableDeclarator> fieldVariable = classScope.get().findAll(FieldDeclaration.class).stream()
-                    .flatMap(field -> field.getVariables().stream())
-                    .filter(v -> v.getNameAsString().equals(nameExpr.getNameAsString()))
-                    .findFirst();
+            Optional<VariableDeclarator> fieldVariable = symbolTable.findField(classScope.get(), nameExpr.getNameAsString());
             return fieldVariable.isPresent() ? fieldVariable : checkIntoConstructor(nameExpr, classScope.get());
         }
         return Optional.empty();
@@ -227,13 +286,34 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
      * It applies input sanitization where an untrusted external source has been detected in the user's source code.
      *
      * @param methodCall the method call
+     * @param className the class name
      * @param source the source
      */
-    private void insertSanitizeMethod(MethodCallExpr methodCall, String source) {
-        var sanitizationMapping = new InputSanitizer().creationMapping();
-        if (sanitizationMapping.containsKey(source)) {
-            String sanitizedCall = sanitizationMapping.get(source).concat("(" + methodCall.toString() + ")");
+    private void insertSanitizeMethod(MethodCallExpr methodCall, String className, String source) {
+        String sanitizer = config.getSanitizerRegistry().getSanitizer(source);
+        if (sanitizer != null) {
+            var event = new SanitizerInsertionEvent();
+            event.begin();
+            String sanitizedCall = sanitizer.concat("(" + methodCall.toString() + ")");
+            findings.add(new Finding(
+                    methodCall.getBegin().map(position -> position.line).orElse(0),
+                    methodCall.getBegin().map(position -> position.column).orElse(0),
+                    className, methodCall.getNameAsString(), source, sanitizer));
+            edits.add(new SourceSplicer.Edit(methodCall, sanitizer.concat("("), ")"));
+            AnalysisMetrics.getInstance().countSanitizedCall();
+            // The file is found through the tree, which the call leaves when it is replaced.
+            String fileName = event.isEnabled() ? AnalysisEvents.fileNameOf(methodCall) : null;
+            symbolTable.invalidate(methodCall);
             methodCall.replace(StaticJavaParser.parseExpression(sanitizedCall));
+            if (event.shouldCommit()) {
+                event.fileName = fileName;
+                event.methodName = methodCall.getNameAsString();
+                event.resolvedClass = className;
+                event.source = source;
+                event.sanitizer = sanitizer;
+                event.line = methodCall.getBegin().map(position -> position.line).orElse(0);
+                event.commit();
+            }
         } else {
             System.out.println("Key '" + source + "' not found in the map.");
         }
@@ -250,10 +330,53 @@ public class MethodCallVisitor extends VoidVisitorAdapter<Void> {
     private void compareWithConfigurationData(List<String> parameterTypes, String className,
                                               MethodCallExpr methodCall, boolean staticMethod) {
         String currentMethod = methodCall.getNameAsString().concat("()");
-        Source constructorDetails = configLoader.getSourceDetailsForResolvedType(className, currentMethod, parameterTypes, staticMethod);
+        var event = new RuleMatchEvent();
+        event.begin();
+        Source constructorDetails = config.getSourceDetailsForResolvedType(className, currentMethod, parameterTypes, staticMethod);
+        if (event.shouldCommit()) {
+            event.fileName = AnalysisEvents.fileNameOf(methodCall);
+            event.methodName = methodCall.getNameAsString();
+            event.resolvedClass = className;
+            event.source = constructorDetails != null ? constructorDetails.getName() : null;
+            event.untrusted = constructorDetails != null && !constructorDetails.isTrusted();
+            event.commit();
+        }
 
         if (constructorDetails != null && !constructorDetails.isTrusted()) {
-            insertSanitizeMethod(methodCall, constructorDetails.getName());
+            if (dataflow) {
+                sourceCalls.add(new SourceCall(methodCall, className, constructorDetails.getName()));
+            } else {
+                insertSanitizeMethod(methodCall, className, constructorDetails.getName());
+            }
         }
     }
+
+    /**
+     * Analyzes the flow of the data of the collected sources through the bodies of the compilation unit,
+     * then sanitizes the sources whose data reaches a sink. All the bodies are analyzed before the tree is changed.
+     * Sources outside any body, such as in the initializer of a field, are always sanitized.
+     */
+    private void sanitizeSourcesReachingSinks() {
+        List<MethodCallExpr> sources = new ArrayList<>();
+        for (SourceCall sourceCall : sourceCalls) {
+            sources.add(sourceCall.methodCall());
+        }
+        var sinks = new SinkMatcher(config.getSinkRegistry());
+        Set<MethodCallExpr> reachingSinks = new InterproceduralAnalysis(cu, sources, sinks).findSourcesReachingSinks();
+
+        for (SourceCall sourceCall : sourceCalls) {
+            if (reachingSinks.contains(sourceCall.methodCall())
+                    || TaintAnalysis.ownerOf(sourceCall.methodCall()).isEmpty()) {
+                insertSanitizeMethod(sourceCall.methodCall(), sourceCall.className(), sourceCall.source());
+            } else {
+                AnalysisMetrics.getInstance().countUnreachedSource();
+            }
+        }
+    }
+
+    /**
+     * A call to an untrusted source, waiting for the dataflow analysis to decide whether it must be sanitized.
+     */
+    private record SourceCall(MethodCallExpr methodCall, String className, String source) {
+    }
 }
@@ -0,0 +1,90 @@
+package taintanalysis.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <h1> SanitizingInputStream </h1>
+ *
+ * This class exposes the text produced by a SanitizingReader as a stream of UTF-8 bytes,
+ * encoding it through fixed-size buffers.
+ */
+public class SanitizingInputStream extends InputStream {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final Reader reader;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 3);
+    private boolean endOfInput;
+
+    /**
+     * Instantiates a stream that encodes the text of the reader.
+     *
+     * @param reader the reader
+     */
+    SanitizingInputStream(Reader reader) {
+        this.reader = reader;
+        bytes.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!bytes.hasRemaining()) {
+            if (endOfInput) {
+                return -1;
+            }
+            fill();
+        }
+        int count = Math.min(len, bytes.remaining());
+        bytes.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the next characters from the reader and encodes them.
+     * A high surrogate at the end of the characters read is kept until the rest of the pair arrives.
+     *
+     * @throws IOException the io exception
+     */
+    private void fill() throws IOException {
+        bytes.clear();
+        int count = reader.read(chars.array(), chars.position(), chars.remaining());
+        if (count < 0) {
+            endOfInput = true;
+        } else {
+            chars.position(chars.position() + count);
+        }
+        chars.flip();
+        encoder.encode(chars, bytes, endOfInput);
+        if (endOfInput) {
+            encoder.flush(bytes);
+        }
+        chars.compact();
+        bytes.flip();
+    }
+
+}
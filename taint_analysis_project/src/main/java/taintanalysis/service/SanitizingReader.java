@@ -0,0 +1,278 @@
+package taintanalysis.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1> SanitizingReader </h1>
+ *
+ * This class applies the sanitization rules of InputSanitizer to the text read from another reader,
+ * so that large payloads do not have to be loaded in memory before being sanitized.
+ * <p>
+ * The reader first buffers a lookahead window: if the whole input fits in it, the input is sanitized by the
+ * method that works on strings, with exactly the same result. Longer inputs are split into chunks, each one ending
+ * with a space that is neither inside a tag nor inside a script element formed by the characters that normalization
+ * turns into '&lt;', and the rules are applied to each chunk; the length limit, the removal of multiple spaces and
+ * the trimming are applied to the stream as a whole. Since no rule matches across such a space, and normalization
+ * never combines a space with the following text, the result is the same as that of the string method, as long as
+ * every tag, every script element and every run of text without spaces fits in the lookahead window.
+ */
+public class SanitizingReader extends Reader {
+
+    /**
+     * Number of characters buffered before deciding how the input is sanitized.
+     */
+    public static final int LOOKAHEAD = 8192;
+
+    /**
+     * The script elements removed by the rules of the input stream, which are the only matches that can contain
+     * a space. Their '&lt;' can only come from the normalization, since the tags are removed before it.
+     */
+    private static final Pattern SCRIPT_ELEMENT = Pattern.compile("(?i)<script.*?>.*?</script>");
+    private static final Pattern SCRIPT_START = Pattern.compile("(?i)<script");
+
+    private final Reader in;
+    private final UnaryOperator<String> wholeInputRules;
+    private final UnaryOperator<String> chunkRules;
+    private final int maxLength;
+    private final String tooLargeMessage;
+
+    private final char[] buffer;
+    private int buffered;
+    private boolean started;
+    private boolean endOfInput;
+    private boolean finished;
+
+    private final StringBuilder output = new StringBuilder();
+    private int outputPosition;
+
+    private int length;
+    private boolean emitted;
+    private boolean pendingSpace;
+
+    /**
+     * Instantiates a reader that sanitizes inputs of any length, chunk by chunk.
+     *
+     * @param in the reader to sanitize
+     * @param wholeInputRules the sanitization applied to inputs that fit in the lookahead window
+     * @param chunkRules the rules applied to each chunk of longer inputs
+     * @param maxLength the maximum length of the sanitized text, before multiple spaces are removed
+     */
+    SanitizingReader(Reader in, UnaryOperator<String> wholeInputRules, UnaryOperator<String> chunkRules, int maxLength) {
+        this(in, wholeInputRules, chunkRules, maxLength, LOOKAHEAD, null);
+    }
+
+    /**
+     * Instantiates a reader that only accepts inputs up to a maximum length,
+     * failing with an I/O error when the input is longer.
+     *
+     * @param in the reader to sanitize
+     * @param wholeInputRules the sanitization applied to the input
+     * @param maxInputLength the maximum length of the input
+     * @param tooLargeMessage the message of the error
+     */
+    SanitizingReader(Reader in, UnaryOperator<String> wholeInputRules, int maxInputLength, String tooLargeMessage) {
+        this(in, wholeInputRules, null, 0, maxInputLength, tooLargeMessage);
+    }
+
+    private SanitizingReader(Reader in, UnaryOperator<String> wholeInputRules, UnaryOperator<String> chunkRules,
+                             int maxLength, int lookahead, String tooLargeMessage) {
+        this.in = in;
+        this.wholeInputRules = wholeInputRules;
+        this.chunkRules = chunkRules;
+        this.maxLength = maxLength;
+        this.tooLargeMessage = tooLargeMessage;
+        this.buffer = new char[lookahead + 1];
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (outputPosition == output.length()) {
+            if (finished) {
+                return -1;
+            }
+            output.setLength(0);
+            outputPosition = 0;
+            fill();
+        }
+        int count = Math.min(len, output.length() - outputPosition);
+        output.getChars(outputPosition, outputPosition + count, cbuf, off);
+        outputPosition += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        in.close();
+    }
+
+    /**
+     * Produces the next part of the sanitized text.
+     *
+     * @throws IOException the io exception
+     */
+    private void fill() throws IOException {
+        if (!started) {
+            started = true;
+            readAhead();
+            if (endOfInput && buffered < buffer.length) {
+                output.append(wholeInputRules.apply(new String(buffer, 0, buffered)));
+                finished = true;
+                return;
+            }
+            if (chunkRules == null) {
+                throw new IOException(tooLargeMessage);
+            }
+        }
+
+        int split = endOfInput ? buffered : findSplit();
+        String chunk = chunkRules.apply(new String(buffer, 0, split));
+        System.arraycopy(buffer, split, buffer, 0, buffered - split);
+        buffered -= split;
+        append(chunk);
+
+        if (endOfInput && buffered == 0) {
+            finished = true;
+        } else if (!finished) {
+            readAhead();
+        }
+    }
+
+    /**
+     * Reads from the underlying reader until the buffer is full or the input ends.
+     *
+     * @throws IOException the io exception
+     */
+    private void readAhead() throws IOException {
+        while (buffered < buffer.length && !endOfInput) {
+            int count = in.read(buffer, buffered, buffer.length - buffered);
+            if (count < 0) {
+                endOfInput = true;
+            } else {
+                buffered += count;
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the next chunk: the buffered text up to the last space which is not inside a tag,
+     * nor inside a script element that the normalization can form. When there is no such space, the chunk ends
+     * before the tag, or the first character that the normalization can turn into '&lt;', which is still open at
+     * the end of the buffer, so that it is sanitized whole with the next chunk; only if it starts the buffer, and so
+     * does not fit in the lookahead window, the whole buffer is used.
+     *
+     * @return int
+     */
+    private int findSplit() {
+        int[] splits = new int[buffered];
+        int count = 0;
+        boolean openTag = false;
+        int tagStart = -1;
+        int tagLike = -1;
+        for (int i = 0; i < buffered; i++) {
+            char c = buffer[i];
+            if (c == '<') {
+                if (!openTag) {
+                    openTag = true;
+                    tagStart = i;
+                }
+            } else if (c == '>') {
+                openTag = false;
+            } else if ((c == '﹤' || c == '＜') && !openTag) {
+                if (tagLike < 0) {
+                    tagLike = i;
+                }
+            } else if (c == ' ' && !openTag) {
+                splits[count++] = i + 1;
+            }
+        }
+        int split = tagLike < 0 ? (count > 0 ? splits[count - 1] : 0) : lastSplitOutsideScripts(splits, count);
+        if (split > 0) {
+            return split;
+        }
+        int open = openTag && tagStart > 0 && (tagLike <= 0 || tagStart < tagLike) ? tagStart : tagLike;
+        if (open > 0) {
+            return open;
+        }
+        return Character.isHighSurrogate(buffer[buffered - 1]) ? buffered - 1 : buffered;
+    }
+
+    /**
+     * Returns the last of the splits that does not fall inside a script element, or 0 if there is none.
+     * The text between two splits is normalized on its own, which gives the same text as the normalization of
+     * the whole buffer, and the script elements are searched in the result. A start of a script element which
+     * is not completed in the buffer may be completed by the following text, so no split after it is used.
+     *
+     * @param splits the positions after the spaces outside the tags, in increasing order
+     * @param count the number of splits
+     * @return int
+     */
+    private int lastSplitOutsideScripts(int[] splits, int count) {
+        var text = new StringBuilder();
+        int[] offsets = new int[count];
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            text.append(InputSanitizer.prepareStreamInput(new String(buffer, from, splits[i] - from)));
+            offsets[i] = text.length();
+            from = splits[i];
+        }
+
+        Matcher start = SCRIPT_START.matcher(text);
+        Matcher element = SCRIPT_ELEMENT.matcher(text);
+        int split = 0;
+        int next = 0;
+        int position = 0;
+        while (next < count) {
+            if (!start.find(position)) {
+                return splits[count - 1];
+            }
+            while (next < count && offsets[next] <= start.start()) {
+                split = splits[next++];
+            }
+            element.region(start.start(), text.length());
+            if (!element.lookingAt()) {
+                break;
+            }
+            while (next < count && offsets[next] < element.end()) {
+                next++;
+            }
+            position = element.end();
+        }
+        return split;
+    }
+
+    /**
+     * Appends a sanitized chunk to the output, applying the length limit, the removal of multiple spaces
+     * and the trimming as if the chunks were a single string.
+     *
+     * @param chunk the chunk
+     */
+    private void append(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            if (length == maxLength) {
+                finished = true;
+                return;
+            }
+            length++;
+            char c = chunk.charAt(i);
+            if (InputSanitizer.isRegexSpace(c)) {
+                pendingSpace = emitted;
+            } else {
+                if (pendingSpace) {
+                    output.append(' ');
+                    pendingSpace = false;
+                }
+                output.append(c);
+                emitted = true;
+            }
+        }
+    }
+
+}
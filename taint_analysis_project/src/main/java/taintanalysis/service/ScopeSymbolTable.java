@@ -0,0 +1,298 @@
+package taintanalysis.service;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ForEachStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * <h1> ScopeSymbolTable </h1>
+ *
+ * This class indexes, in a single pass over a CompilationUnit, the variables visible in each scope:
+ * for every block, the first variable declared with each name anywhere inside it;
+ * for every class, the first field with each name and the objects assigned to each name in its first constructor.
+ * "First" follows the pre-order of the tree, so each lookup returns the same node that a search with findAll would.
+ * It also records the variables and parameters declared directly by each scope (block, loop, try, catch, method,
+ * lambda, type), so that the type of a name can be resolved from the innermost scope enclosing its use.
+ * <p>
+ * The table is stored in the data of the CompilationUnit. When a node containing declarations is replaced or moved,
+ * the table is rebuilt at the next lookup; blocks and classes that are no longer part of the tree are searched directly.
+ */
+public class ScopeSymbolTable {
+
+    private static final DataKey<ScopeSymbolTable> SYMBOL_TABLE = new DataKey<>() {
+    };
+
+    private final CompilationUnit cu;
+    private final Map<BlockStmt, Map<String, VariableDeclarator>> blockVariables = new IdentityHashMap<>();
+    private final Map<ClassOrInterfaceDeclaration, Map<String, VariableDeclarator>> classFields = new IdentityHashMap<>();
+    private final Map<ClassOrInterfaceDeclaration, Map<String, AssignExpr>> constructorAssignments = new IdentityHashMap<>();
+    private final Set<ClassOrInterfaceDeclaration> indexedClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Node, Map<String, Type>> scopeDeclarations = new IdentityHashMap<>();
+    private final Map<String, Type> firstDeclarations = new HashMap<>();
+    private boolean stale = true;
+
+    private ScopeSymbolTable(CompilationUnit cu) {
+        this.cu = cu;
+    }
+
+    /**
+     * Returns the symbol table of the CompilationUnit, creating it on first use.
+     *
+     * @param cu the cu
+     * @return scope symbol table
+     */
+    public static ScopeSymbolTable of(CompilationUnit cu) {
+        if (!cu.containsData(SYMBOL_TABLE)) {
+            cu.setData(SYMBOL_TABLE, new ScopeSymbolTable(cu));
+        }
+        return cu.getData(SYMBOL_TABLE);
+    }
+
+    /**
+     * Returns the first variable with the given name declared inside the block.
+     *
+     * @param block the block
+     * @param name the name
+     * @return optional variable declarator
+     */
+    public Optional<VariableDeclarator> findInBlock(BlockStmt block, String name) {
+        refresh();
+        Map<String, VariableDeclarator> variables = blockVariables.get(block);
+        if (variables == null) {
+            return block.findAll(VariableDeclarator.class).stream()
+                    .filter(v -> v.getNameAsString().equals(name))
+                    .findFirst();
+        }
+        return Optional.ofNullable(variables.get(name));
+    }
+
+    /**
+     * Returns the first field with the given name declared in the class.
+     *
+     * @param classScope the class scope
+     * @param name the name
+     * @return optional variable declarator
+     */
+    public Optional<VariableDeclarator> findField(ClassOrInterfaceDeclaration classScope, String name) {
+        refresh();
+        if (!indexedClasses.contains(classScope)) {
+            return classScope.findAll(FieldDeclaration.class).stream()
+                    .flatMap(field -> field.getVariables().stream())
+                    .filter(v -> v.getNameAsString().equals(name))
+                    .findFirst();
+        }
+        return Optional.ofNullable(classFields.getOrDefault(classScope, Map.of()).get(name));
+    }
+
+    /**
+     * Returns the first object assigned to the given name in the first constructor of the class.
+     *
+     * @param classScope the class scope
+     * @param name the name
+     * @return optional object creation expr
+     */
+    public Optional<ObjectCreationExpr> findConstructorAssignment(ClassOrInterfaceDeclaration classScope, String name) {
+        refresh();
+        if (!indexedClasses.contains(classScope)) {
+            return classScope.findFirst(ConstructorDeclaration.class)
+                    .flatMap(constructor -> constructor.getBody().findAll(AssignExpr.class).stream()
+                            .filter(assign -> assign.getTarget().isNameExpr())
+                            .filter(assign -> assign.getTarget().asNameExpr().getNameAsString().equals(name))
+                            .map(AssignExpr::getValue)
+                            .filter(Expression::isObjectCreationExpr)
+                            .findFirst())
+                    .map(Expression::asObjectCreationExpr);
+        }
+        return Optional.ofNullable(constructorAssignments.getOrDefault(classScope, Map.of()).get(name))
+                .map(assign -> assign.getValue().asObjectCreationExpr());
+    }
+
+    /**
+     * Returns the declared type of the variable with the given name visible where the node is used.
+     * The scopes enclosing the node are searched from the innermost outwards. A node that is no longer part of
+     * the tree, such as an object creation moved into a synthetic declarator, has lost its scopes:
+     * in that case the type of the first variable with that name in the CompilationUnit is returned.
+     *
+     * @param node the node
+     * @param name the name
+     * @return optional type
+     */
+    public Optional<Type> findVariableType(Node node, String name) {
+        refresh();
+        Node scope = node;
+        while (true) {
+            Map<String, Type> declarations = scopeDeclarations.get(scope);
+            if (declarations != null && declarations.containsKey(name)) {
+                // The parameters of a lambda may have no declared type.
+                return Optional.of(declarations.get(name)).filter(type -> !type.isUnknownType());
+            }
+            Optional<Node> parent = scope.getParentNode();
+            if (parent.isEmpty()) {
+                break;
+            }
+            scope = parent.get();
+        }
+        return scope == cu ? Optional.empty() : Optional.ofNullable(firstDeclarations.get(name));
+    }
+
+    /**
+     * Signals that the node is about to be replaced or moved out of its position in the tree.
+     * If it contains declarations or assignments, the table is rebuilt at the next lookup.
+     *
+     * @param node the node
+     */
+    public void invalidate(Node node) {
+        if (!stale) {
+            stale = containsSymbols(node);
+        }
+    }
+
+    /**
+     * Rebuilds the table if the tree has changed since it was built.
+     */
+    private void refresh() {
+        if (!stale) {
+            return;
+        }
+        blockVariables.clear();
+        classFields.clear();
+        constructorAssignments.clear();
+        indexedClasses.clear();
+        scopeDeclarations.clear();
+        firstDeclarations.clear();
+        index(cu, new ArrayList<>(), new ArrayList<>(), new HashMap<>());
+        stale = false;
+    }
+
+    /**
+     * Indexes the node and its descendants in pre-order.
+     * The enclosing blocks and classes are kept in lists instead of being found by walking up from each declaration,
+     * so that the whole tree is traversed only once.
+     *
+     * @param node the node
+     * @param blocks the enclosing blocks
+     * @param classes the enclosing classes
+     * @param declarations the declarations of the innermost enclosing scope
+     */
+    private void index(Node node, List<Map<String, VariableDeclarator>> blocks,
+                       List<ClassOrInterfaceDeclaration> classes, Map<String, Type> declarations) {
+        if (node instanceof VariableDeclarator) {
+            VariableDeclarator variable = (VariableDeclarator) node;
+            for (Map<String, VariableDeclarator> variables : blocks) {
+                variables.putIfAbsent(variable.getNameAsString(), variable);
+            }
+            declarations.putIfAbsent(variable.getNameAsString(), variable.getType());
+            firstDeclarations.putIfAbsent(variable.getNameAsString(), variable.getType());
+        } else if (node instanceof Parameter) {
+            declarations.putIfAbsent(((Parameter) node).getNameAsString(), ((Parameter) node).getType());
+        } else if (node instanceof FieldDeclaration) {
+            for (VariableDeclarator variable : ((FieldDeclaration) node).getVariables()) {
+                for (ClassOrInterfaceDeclaration classScope : classes) {
+                    classFields.computeIfAbsent(classScope, key -> new HashMap<>())
+                            .putIfAbsent(variable.getNameAsString(), variable);
+                }
+            }
+        } else if (node instanceof ConstructorDeclaration && !classes.isEmpty()) {
+            Map<String, AssignExpr> assignments = indexAssignments((ConstructorDeclaration) node);
+            for (ClassOrInterfaceDeclaration classScope : classes) {
+                constructorAssignments.putIfAbsent(classScope, assignments);
+            }
+        }
+
+        List<Map<String, VariableDeclarator>> innerBlocks = blocks;
+        List<ClassOrInterfaceDeclaration> innerClasses = classes;
+        if (node instanceof BlockStmt) {
+            Map<String, VariableDeclarator> variables = new HashMap<>();
+            blockVariables.put((BlockStmt) node, variables);
+            innerBlocks = new ArrayList<>(blocks);
+            innerBlocks.add(variables);
+        } else if (node instanceof ClassOrInterfaceDeclaration) {
+            indexedClasses.add((ClassOrInterfaceDeclaration) node);
+            innerClasses = new ArrayList<>(classes);
+            innerClasses.add((ClassOrInterfaceDeclaration) node);
+        }
+        Map<String, Type> innerDeclarations = declarations;
+        if (isScope(node)) {
+            innerDeclarations = new HashMap<>();
+            scopeDeclarations.put(node, innerDeclarations);
+        }
+        for (Node child : node.getChildNodes()) {
+            index(child, innerBlocks, innerClasses, innerDeclarations);
+        }
+    }
+
+    /**
+     * Checks whether the node introduces a scope for the variables or parameters declared directly in it.
+     *
+     * @param node the node
+     * @return boolean
+     */
+    private static boolean isScope(Node node) {
+        return node instanceof BlockStmt || node instanceof ForStmt || node instanceof ForEachStmt
+                || node instanceof TryStmt || node instanceof CatchClause || node instanceof SwitchStmt
+                || node instanceof CallableDeclaration || node instanceof LambdaExpr
+                || node instanceof TypeDeclaration || node instanceof ObjectCreationExpr;
+    }
+
+    /**
+     * Checks whether the node is, or contains, a declaration or an assignment.
+     *
+     * @param node the node
+     * @return boolean
+     */
+    private static boolean containsSymbols(Node node) {
+        if (node instanceof VariableDeclarator || node instanceof AssignExpr) {
+            return true;
+        }
+        for (Node child : node.getChildNodes()) {
+            if (containsSymbols(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns, for each name, the first assignment of a new object to that name in the body of the constructor.
+     *
+     * @param constructor the constructor
+     * @return map
+     */
+    private static Map<String, AssignExpr> indexAssignments(ConstructorDeclaration constructor) {
+        Map<String, AssignExpr> assignments = new HashMap<>();
+        for (AssignExpr assign : constructor.getBody().findAll(AssignExpr.class)) {
+            if (assign.getTarget().isNameExpr() && assign.getValue().isObjectCreationExpr()) {
+                assignments.putIfAbsent(assign.getTarget().asNameExpr().getNameAsString(), assign);
+            }
+        }
+        return assignments;
+    }
+
+}
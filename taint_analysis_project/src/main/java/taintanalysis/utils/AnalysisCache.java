@@ -0,0 +1,143 @@
+package taintanalysis.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static taintanalysis.error.ErrorCode.generateException;
+import static taintanalysis.error.ErrorCode.generateRuntimeException;
+import static taintanalysis.utils.FileUtils.CONFIG_FILE_PATH;
+
+/**
+ * <h1> AnalysisCache </h1>
+ *
+ * This class keeps the results of the previous runs, so that files whose content has not changed are not analyzed again.
+ * Every entry records the hash of the configuration file and of the analysis mode it was computed with,
+ * therefore any change to the configuration, or switching the dataflow analysis on or off, invalidates the whole cache.
+ * The entries hold hashes and findings, not the outputs of the files, so the cache stays small however large the files.
+ */
+public class AnalysisCache {
+
+    public static final String CACHE_FILE_PATH = "data/cache/analysis-cache.json";
+
+    private final String configHash;
+    private final Map<String, CacheEntry> previousEntries;
+    private final Map<String, CacheEntry> currentEntries = new ConcurrentHashMap<>();
+
+    private AnalysisCache(String configHash, Map<String, CacheEntry> previousEntries) {
+        this.configHash = configHash;
+        this.previousEntries = previousEntries;
+    }
+
+    /**
+     * Loads the cache written by the previous run, discarding the entries computed with a different configuration
+     * or analysis mode.
+     *
+     * @param dataflow whether the dataflow analysis is enabled
+     * @return analysis cache
+     */
+    public static AnalysisCache load(boolean dataflow) {
+        String fileHash = hash(FileUtils.readFileContent(CONFIG_FILE_PATH));
+        String configHash = dataflow ? hash((fileHash + ":dataflow").getBytes(StandardCharsets.UTF_8)) : fileHash;
+        Map<String, CacheEntry> entries = new HashMap<>();
+        Path cacheFile = Paths.get(CACHE_FILE_PATH);
+
+        if (Files.exists(cacheFile)) {
+            try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                Map<String, CacheEntry> stored = new Gson().fromJson(reader,
+                        new TypeToken<Map<String, CacheEntry>>() { }.getType());
+                if (stored != null) {
+                    stored.forEach((fileName, entry) -> {
+                        if (configHash.equals(entry.getConfigHash())) {
+                            entries.put(fileName, entry);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                throw generateRuntimeException(e);
+            }
+        }
+        return new AnalysisCache(configHash, entries);
+    }
+
+    /**
+     * Returns the hash of the configuration file used in this run.
+     *
+     * @return string
+     */
+    public String getConfigHash() {
+        return configHash;
+    }
+
+    /**
+     * Returns the result of the previous analysis of the file, if its content has not changed since then.
+     * A valid entry is kept for the next run.
+     *
+     * @param fileName the file name
+     * @param contentHash the content hash
+     * @return optional cache entry
+     */
+    public Optional<CacheEntry> lookup(String fileName, String contentHash) {
+        CacheEntry entry = previousEntries.get(fileName);
+        if (entry != null && entry.getContentHash().equals(contentHash)) {
+            currentEntries.put(fileName, entry);
+            return Optional.of(entry);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Records the result of the analysis of a file.
+     *
+     * @param fileName the file name
+     * @param entry the entry
+     */
+    public void store(String fileName, CacheEntry entry) {
+        currentEntries.put(fileName, entry);
+    }
+
+    /**
+     * Writes the entries of the files seen in this run, so that entries of deleted files are dropped.
+     */
+    public void save() {
+        Path cacheFile = Paths.get(CACHE_FILE_PATH);
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(cacheFile, StandardCharsets.UTF_8)) {
+                new Gson().toJson(new HashMap<>(currentEntries), writer);
+            }
+        } catch (IOException e) {
+            throw generateRuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the SHA-256 hash of the content, as a hexadecimal string.
+     *
+     * @param content the content
+     * @return string
+     */
+    public static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw generateException(e);
+        }
+    }
+
+}
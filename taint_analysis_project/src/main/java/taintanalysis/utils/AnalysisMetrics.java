@@ -0,0 +1,364 @@
+package taintanalysis.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <h1> AnalysisMetrics </h1>
+ *
+ * This class collects the counters and the time spent in each phase of the analysis.
+ * The durations of the phases of each file and of the requests to the symbol solver are also counted
+ * in {@link LatencyHistogram}s, and all the metrics can be exported at the end of a run by {@link MetricsExporter}.
+ * In pipeline mode it also collects, for each stage, the files processed, the time its workers were busy
+ * and the number of files waiting in its queue.
+ * The counters can be updated by several workers at the same time without contention.
+ */
+public class AnalysisMetrics {
+
+    /**
+     * Phases in which the analysis of a file is divided.
+     */
+    public enum Phase {
+        SCAN, HASH, PARSE, VISIT, PRINT, WRITE
+    }
+
+    /**
+     * Stages of the pipeline mode, each run by its own workers.
+     */
+    public enum Stage {
+        READ, ANALYZE, WRITE
+    }
+
+    private final static AnalysisMetrics obj = new AnalysisMetrics();
+
+    private final Map<Phase, LatencyHistogram> phaseTimes = new EnumMap<>(Phase.class);
+    private final LongAdder analyzedFiles = new LongAdder();
+    private final LongAdder reusedFiles = new LongAdder();
+    private final LongAdder copiedFiles = new LongAdder();
+    private final LatencyHistogram resolutionTimes = new LatencyHistogram();
+    private final LongAdder cachedResolutions = new LongAdder();
+    private final LongAdder unreachedSources = new LongAdder();
+    private final LongAdder sourceLookups = new LongAdder();
+    private final LongAdder matchedSourceLookups = new LongAdder();
+    private final LongAdder skippedNestedCalls = new LongAdder();
+    private final LongAdder sanitizedCalls = new LongAdder();
+    private final Map<Stage, LongAdder> stageFiles = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAccumulator> maxQueueDepths = new EnumMap<>(Stage.class);
+
+    private AnalysisMetrics() {
+        for (Phase phase : Phase.values()) {
+            phaseTimes.put(phase, new LatencyHistogram());
+        }
+        for (Stage stage : Stage.values()) {
+            stageFiles.put(stage, new LongAdder());
+            stageNanos.put(stage, new LongAdder());
+            maxQueueDepths.put(stage, new LongAccumulator(Math::max, 0));
+        }
+    }
+
+    /**
+     * Returns the only instance of the class.
+     *
+     * @return analysis metrics
+     */
+    public static AnalysisMetrics getInstance() {
+        return obj;
+    }
+
+    /**
+     * Executes an action, adding its duration to the time of the phase.
+     *
+     * @param phase the phase
+     * @param action the action
+     * @param <T> the type of the result
+     * @return the result of the action
+     */
+    public <T> T call(Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            phaseTimes.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes an action, adding its duration to the time of the phase.
+     *
+     * @param phase the phase
+     * @param action the action
+     */
+    public void run(Phase phase, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            phaseTimes.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts a file that has been parsed and visited.
+     */
+    public void countAnalyzedFile() {
+        analyzedFiles.increment();
+    }
+
+    /**
+     * Counts a file whose output of the previous run has been reused.
+     */
+    public void countReusedFile() {
+        reusedFiles.increment();
+    }
+
+    /**
+     * Counts a file that has been copied unchanged because it cannot contain external sources.
+     */
+    public void countCopiedFile() {
+        copiedFiles.increment();
+    }
+
+    /**
+     * Counts a request to the symbol solver, with the time it took.
+     *
+     * @param nanos the nanos
+     */
+    public void countResolution(long nanos) {
+        resolutionTimes.record(nanos);
+    }
+
+    /**
+     * Counts a resolution answered with the result of a previous request for the same node.
+     */
+    public void countCachedResolution() {
+        cachedResolutions.increment();
+    }
+
+    /**
+     * Counts a call to an untrusted source left unsanitized because its data reaches no sink.
+     */
+    public void countUnreachedSource() {
+        unreachedSources.increment();
+    }
+
+    /**
+     * Counts a search of the configuration for the source matching a resolved call.
+     *
+     * @param matched whether a source has been found
+     */
+    public void countSourceLookup(boolean matched) {
+        sourceLookups.increment();
+        if (matched) {
+            matchedSourceLookups.increment();
+        }
+    }
+
+    /**
+     * Counts a call that is not analyzed because it is an argument of another call or of a constructor.
+     */
+    public void countSkippedNestedCall() {
+        skippedNestedCalls.increment();
+    }
+
+    /**
+     * Counts a call wrapped with a sanitization method.
+     */
+    public void countSanitizedCall() {
+        sanitizedCalls.increment();
+    }
+
+    /**
+     * Counts a file processed by a stage of the pipeline, adding the time it took to the busy time of the stage.
+     *
+     * @param stage the stage
+     * @param nanos the nanos
+     */
+    public void countStageFile(Stage stage, long nanos) {
+        stageFiles.get(stage).increment();
+        stageNanos.get(stage).add(nanos);
+    }
+
+    /**
+     * Records the number of files waiting in the queue of a stage, keeping the maximum.
+     *
+     * @param stage the stage
+     * @param depth the depth
+     */
+    public void recordQueueDepth(Stage stage, int depth) {
+        maxQueueDepths.get(stage).accumulate(depth);
+    }
+
+    /**
+     * Returns the time spent in the phase, in nanoseconds.
+     *
+     * @param phase the phase
+     * @return long
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseTimes.get(phase).getSumNanos();
+    }
+
+    /**
+     * Returns the durations of the phase for each file.
+     *
+     * @param phase the phase
+     * @return latency histogram
+     */
+    public LatencyHistogram getPhaseHistogram(Phase phase) {
+        return phaseTimes.get(phase);
+    }
+
+    /**
+     * Returns the number of files that have been parsed and visited.
+     *
+     * @return long
+     */
+    public long getAnalyzedFiles() {
+        return analyzedFiles.sum();
+    }
+
+    /**
+     * Returns the number of files whose output of the previous run has been reused.
+     *
+     * @return long
+     */
+    public long getReusedFiles() {
+        return reusedFiles.sum();
+    }
+
+    /**
+     * Returns the number of files that have been copied unchanged because they cannot contain external sources.
+     *
+     * @return long
+     */
+    public long getCopiedFiles() {
+        return copiedFiles.sum();
+    }
+
+    /**
+     * Returns the number of requests to the symbol solver.
+     *
+     * @return long
+     */
+    public long getResolutions() {
+        return resolutionTimes.getCount();
+    }
+
+    /**
+     * Returns the durations of the requests to the symbol solver.
+     *
+     * @return latency histogram
+     */
+    public LatencyHistogram getResolutionHistogram() {
+        return resolutionTimes;
+    }
+
+    /**
+     * Returns the number of resolutions answered without asking the symbol solver.
+     *
+     * @return long
+     */
+    public long getCachedResolutions() {
+        return cachedResolutions.sum();
+    }
+
+    /**
+     * Returns the number of calls to untrusted sources left unsanitized because their data reaches no sink.
+     *
+     * @return long
+     */
+    public long getUnreachedSources() {
+        return unreachedSources.sum();
+    }
+
+    /**
+     * Returns the number of searches of the configuration for the source matching a resolved call.
+     *
+     * @return long
+     */
+    public long getSourceLookups() {
+        return sourceLookups.sum();
+    }
+
+    /**
+     * Returns the number of searches of the configuration that found a source.
+     *
+     * @return long
+     */
+    public long getMatchedSourceLookups() {
+        return matchedSourceLookups.sum();
+    }
+
+    /**
+     * Returns the number of calls not analyzed because they are an argument of another call or of a constructor.
+     *
+     * @return long
+     */
+    public long getSkippedNestedCalls() {
+        return skippedNestedCalls.sum();
+    }
+
+    /**
+     * Returns the number of calls wrapped with a sanitization method.
+     *
+     * @return long
+     */
+    public long getSanitizedCalls() {
+        return sanitizedCalls.sum();
+    }
+
+    /**
+     * Returns the number of files processed by the stage.
+     *
+     * @param stage the stage
+     * @return long
+     */
+    public long getStageFiles(Stage stage) {
+        return stageFiles.get(stage).sum();
+    }
+
+    /**
+     * Returns the time the workers of the stage spent processing files, in nanoseconds.
+     *
+     * @param stage the stage
+     * @return long
+     */
+    public long getStageNanos(Stage stage) {
+        return stageNanos.get(stage).sum();
+    }
+
+    /**
+     * Returns the largest number of files that waited at the same time in the queue of the stage.
+     *
+     * @param stage the stage
+     * @return long
+     */
+    public long getMaxQueueDepth(Stage stage) {
+        return maxQueueDepths.get(stage).get();
+    }
+
+    /**
+     * Sets all the counters and times to zero.
+     */
+    public void reset() {
+        phaseTimes.values().forEach(LatencyHistogram::reset);
+        analyzedFiles.reset();
+        reusedFiles.reset();
+        copiedFiles.reset();
+        resolutionTimes.reset();
+        cachedResolutions.reset();
+        unreachedSources.reset();
+        sourceLookups.reset();
+        matchedSourceLookups.reset();
+        skippedNestedCalls.reset();
+        sanitizedCalls.reset();
+        stageFiles.values().forEach(LongAdder::reset);
+        stageNanos.values().forEach(LongAdder::reset);
+        maxQueueDepths.values().forEach(LongAccumulator::reset);
+    }
+
+}
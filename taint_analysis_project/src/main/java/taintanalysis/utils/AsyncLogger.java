@@ -0,0 +1,274 @@
+package taintanalysis.utils;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <h1> AsyncLogger </h1>
+ *
+ * This class writes the log of the analysis from a background thread, so that the workers never wait for the console.
+ * Each event is a name with up to four key-value fields, written as a single line such as
+ * {@code 2024-01-01T10:00:00Z INFO [main] method.visit method=read}.
+ * <p>
+ * The events are stored in a ring buffer whose slots are allocated once: a worker claims the next slot, fills it and
+ * publishes it, and the background thread formats the published slots in order and prints them in batches.
+ * When the buffer is full, the workers wait for a slot to be freed, so no event is lost.
+ * The level is checked before anything is built, so a disabled event costs only the check; the callers that compute
+ * the values of the fields check {@link #isEnabled(Level)} first.
+ */
+public class AsyncLogger {
+
+    /**
+     * Levels of the events, from the least to the most detailed. An event is written if its level is not above
+     * the level of the logger; no event is written at level OFF.
+     */
+    public enum Level {
+        OFF, WARN, INFO, DEBUG
+    }
+
+    private static final int CAPACITY = 1024;
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_FIELDS = 4;
+    private static final int BATCH_SIZE = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final static AsyncLogger obj = new AsyncLogger();
+
+    private volatile Level level = Level.WARN;
+    private final Event[] ring = new Event[CAPACITY];
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean sleeping;
+    private final Thread writer;
+
+    private AsyncLogger() {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Event();
+        }
+        writer = new Thread(this::drain, "async-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the only instance of the class.
+     *
+     * @return async logger
+     */
+    public static AsyncLogger getInstance() {
+        return obj;
+    }
+
+    /**
+     * Checks whether the events of the level are written.
+     *
+     * @param level the level
+     * @return boolean
+     */
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() <= obj.level.ordinal();
+    }
+
+    /**
+     * Sets the most detailed level of the events that are written.
+     *
+     * @param level the level
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    /**
+     * Logs an event without fields.
+     *
+     * @param level the level
+     * @param event the event
+     */
+    public void log(Level level, String event) {
+        log(level, event, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Logs an event with one field.
+     *
+     * @param level the level
+     * @param event the event
+     * @param key the key
+     * @param value the value
+     */
+    public void log(Level level, String event, String key, String value) {
+        log(level, event, key, value, null, null, null, null, null, null);
+    }
+
+    /**
+     * Logs an event with two fields.
+     *
+     * @param level the level
+     * @param event the event
+     * @param key1 the first key
+     * @param value1 the first value
+     * @param key2 the second key
+     * @param value2 the second value
+     */
+    public void log(Level level, String event, String key1, String value1, String key2, String value2) {
+        log(level, event, key1, value1, key2, value2, null, null, null, null);
+    }
+
+    /**
+     * Logs an event with up to four fields; the fields with a null key are left out.
+     *
+     * @param level the level
+     * @param event the event
+     * @param key1 the first key
+     * @param value1 the first value
+     * @param key2 the second key
+     * @param value2 the second value
+     * @param key3 the third key
+     * @param value3 the third value
+     * @param key4 the fourth key
+     * @param value4 the fourth value
+     */
+    public void log(Level level, String event, String key1, String value1, String key2, String value2,
+                    String key3, String value3, String key4, String value4) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= CAPACITY) {
+            LockSupport.parkNanos(1000);
+        }
+        Event slot = ring[(int) (sequence & MASK)];
+        slot.level = level;
+        slot.timestamp = System.currentTimeMillis();
+        slot.thread = Thread.currentThread().getName();
+        slot.name = event;
+        slot.keys[0] = key1;
+        slot.values[0] = value1;
+        slot.keys[1] = key2;
+        slot.values[1] = value2;
+        slot.keys[2] = key3;
+        slot.values[2] = value3;
+        slot.keys[3] = key4;
+        slot.values[3] = value4;
+        slot.sequence = sequence;
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until all the events logged so far have been written.
+     */
+    public void flush() {
+        long last = claimed.get();
+        while (consumed < last) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Formats the published events in order, printing them when no event is waiting or the batch is full.
+     */
+    private void drain() {
+        var batch = new StringBuilder(BATCH_SIZE * 2);
+        long next = 0;
+        while (true) {
+            Event slot = ring[(int) (next & MASK)];
+            if (slot.sequence != next) {
+                if (batch.length() > 0) {
+                    System.out.print(batch);
+                    batch.setLength(0);
+                }
+                // The flag is set before checking the slot again, so a worker publishing meanwhile sees it.
+                sleeping = true;
+                if (slot.sequence != next) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+                continue;
+            }
+            slot.appendTo(batch);
+            slot.clear();
+            next++;
+            consumed = next;
+            if (batch.length() >= BATCH_SIZE) {
+                System.out.print(batch);
+                batch.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * A slot of the ring buffer. Its fields are written by the worker that claimed it before the sequence,
+     * and read by the background thread after it.
+     */
+    private static final class Event {
+        private volatile long sequence = -1;
+        private Level level;
+        private long timestamp;
+        private String thread;
+        private String name;
+        private final String[] keys = new String[MAX_FIELDS];
+        private final String[] values = new String[MAX_FIELDS];
+
+        private void appendTo(StringBuilder line) {
+            line.append(Instant.ofEpochMilli(timestamp)).append(' ').append(level)
+                    .append(" [").append(thread).append("] ").append(name);
+            for (int i = 0; i < MAX_FIELDS; i++) {
+                if (keys[i] != null) {
+                    line.append(' ').append(keys[i]).append('=');
+                    appendValue(line, values[i]);
+                }
+            }
+            line.append(System.lineSeparator());
+        }
+
+        /**
+         * Appends the value, quoted if it contains spaces, quotes or equal signs, so that the line can be split
+         * into its fields.
+         *
+         * @param line the line
+         * @param value the value
+         */
+        private static void appendValue(StringBuilder line, String value) {
+            if (value == null) {
+                line.append("null");
+                return;
+            }
+            boolean quoted = value.isEmpty();
+            for (int i = 0; i < value.length() && !quoted; i++) {
+                char c = value.charAt(i);
+                quoted = Character.isWhitespace(c) || c == '"' || c == '=';
+            }
+            if (!quoted) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> line.append("\\\"");
+                    case '\\' -> line.append("\\\\");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    default -> line.append(c);
+                }
+            }
+            line.append('"');
+        }
+
+        private void clear() {
+            thread = null;
+            name = null;
+            for (int i = 0; i < MAX_FIELDS; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package taintanalysis.utils;
+
+import com.github.javaparser.symbolsolver.cache.Cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <h1> BoundedCache </h1>
+ *
+ * This class is a thread-safe cache for the symbol solver which keeps at most a given number of entries,
+ * discarding the least recently used ones when the limit is exceeded. The limit can be lowered while the cache is used.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+
+    private final Map<K, V> entries;
+    private long maximumSize;
+
+    /**
+     * Instantiates a new cache with the given maximum number of entries.
+     *
+     * @param maximumSize the maximum size
+     */
+    public BoundedCache(long maximumSize) {
+        this.maximumSize = maximumSize;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > BoundedCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Changes the maximum number of entries, discarding the least recently used ones that exceed it.
+     *
+     * @param maximumSize the maximum size
+     */
+    public synchronized void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        Iterator<K> eldest = entries.keySet().iterator();
+        while (entries.size() > maximumSize) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    @Override
+    public synchronized Optional<V> get(K key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized void removeAll() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+}
@@ -0,0 +1,71 @@
+package taintanalysis.utils;
+
+import taintanalysis.service.Finding;
+
+import java.util.List;
+
+/**
+ * <h1> CacheEntry </h1>
+ *
+ * It is used to record the result of the analysis of a single file, together with the hashes it was computed from.
+ * The output itself is not kept: its hash tells whether the file written in the destination directory is still
+ * the output of the analysis.
+ */
+public class CacheEntry {
+    private final String contentHash;
+    private final String configHash;
+    private final List<Finding> findings;
+    private final String outputHash;
+
+    /**
+     * Instantiates a new Cache entry.
+     *
+     * @param contentHash the content hash
+     * @param configHash the config hash
+     * @param findings the findings
+     * @param outputHash the output hash
+     */
+    public CacheEntry(String contentHash, String configHash, List<Finding> findings, String outputHash) {
+        this.contentHash = contentHash;
+        this.configHash = configHash;
+        this.findings = findings;
+        this.outputHash = outputHash;
+    }
+
+    /**
+     * Returns the hash of the content of the source file.
+     *
+     * @return string
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns the hash of the configuration file used for the analysis.
+     *
+     * @return string
+     */
+    public String getConfigHash() {
+        return configHash;
+    }
+
+    /**
+     * Returns the calls that have been sanitized in the file.
+     *
+     * @return list finding
+     */
+    public List<Finding> getFindings() {
+        return findings;
+    }
+
+    /**
+     * Returns the hash of the content written in the destination directory.
+     *
+     * @return string
+     */
+    public String getOutputHash() {
+        return outputHash;
+    }
+
+}
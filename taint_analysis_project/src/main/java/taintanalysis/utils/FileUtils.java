@@ -1,26 +1,23 @@
 package taintanalysis.utils;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import taintanalysis.error.ErrorException;
+import taintanalysis.events.AnalysisEvents;
+import taintanalysis.events.FileParseEvent;
+import taintanalysis.events.FileWriteEvent;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
-import java.util.Arrays;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static taintanalysis.error.ErrorCode.*;
 
@@ -36,83 +33,90 @@ public class FileUtils {
     public static final String DESTINATION_BASE_PATH = "data/destination/";
 
     /**
-     * Returns the configured instance of JavaParser.
+     * Returns an instance of CompilationUnit, parsed from the source code of a file.
+     * The name of the file is recorded in the CompilationUnit, to be reported by the events of its analysis.
      *
-     * @return java parser
-     */
-    private static JavaParser parserSetting() {
-        var combinedTypeSolver = new CombinedTypeSolver();
-        combinedTypeSolver.add(new ReflectionTypeSolver());
-        combinedTypeSolver.add(new JavaParserTypeSolver(Paths.get("src/main/java")));
-
-        var parserConfiguration = new ParserConfiguration()
-                .setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
-
-        return new JavaParser(parserConfiguration);
-    }
-
-    /**
-     * Returns an instance of CompilationUnit.
-     *
-     * @param sourceFilePath the source file path
+     * @param sourceCode the source code
+     * @param fileName the file name
      * @return compilation unit
      */
-    public static CompilationUnit retrieveCompilationUnit(String sourceFilePath) {
-        JavaParser javaParser = parserSetting();
-        return javaParser.parse(getFileInputStream(sourceFilePath))
-                .getResult()
-                .orElseThrow();
-    }
-
-    /**
-     * Returns a json object that contains information about the configuration file.
-     *
-     * @return json node
-     */
-    public static JsonNode getConfigInformation() {
+    public static CompilationUnit retrieveCompilationUnit(String sourceCode, String fileName) {
+        JavaParser javaParser = ParserContext.getInstance().getParser();
+        var event = new FileParseEvent();
+        event.begin();
+        CompilationUnit cu = null;
         try {
-            return new ObjectMapper().readTree(new File(CONFIG_FILE_PATH));
-        } catch (IOException e) {
-            throw generateRuntimeException(e);
+            cu = javaParser.parse(sourceCode)
+                    .getResult()
+                    .orElseThrow();
+            AnalysisEvents.setFileName(cu, fileName);
+            return cu;
+        } finally {
+            if (event.shouldCommit()) {
+                event.fileName = fileName;
+                event.length = sourceCode.length();
+                event.succeeded = cu != null;
+                event.commit();
+            }
         }
     }
 
     /**
-     * Returns the input stream of the file based on the source provided as input.
+     * Returns the content of the file as an array of bytes.
      *
-     * @param source the source
-     * @return file input stream
+     * @param filePath the file path
+     * @return byte array
      */
-    private static FileInputStream getFileInputStream(String source) {
+    public static byte[] readFileContent(String filePath) {
         try {
-            return new FileInputStream(source);
-        } catch (FileNotFoundException e) {
+            return Files.readAllBytes(Paths.get(filePath));
+        } catch (IOException e) {
             throw generateRuntimeException(e);
         }
     }
 
     /**
-     * Returns the list of java file names in the source directory that are to be parsed.
+     * Returns the paths, relative to the source directory, of the java files to be analyzed, searched in the directory
+     * and in all its subdirectories. The tree is walked lazily while the stream is consumed, so the first files can be
+     * analyzed before the walk is over; the stream must be closed to release the directories that are still open.
+     * A file is analyzed if its relative path matches one of the included globs, or if there are none, and matches
+     * none of the excluded globs. A destination directory placed inside the source directory is skipped.
      *
-     * @return list string
+     * @param sourceDirectory the source directory
+     * @param destinationDirectory the destination directory
+     * @param includes the included globs
+     * @param excludes the excluded globs
+     * @return stream string
      * @throws ErrorException the error exception
      */
-    public static List<String> getSourcesList() throws ErrorException {
-        File directory = new File(SOURCE_BASE_PATH);
-
-        if (!directory.exists() || !directory.isDirectory()) {
+    public static Stream<String> streamSources(String sourceDirectory, String destinationDirectory,
+                                               List<String> includes, List<String> excludes) throws ErrorException {
+        Path root = Paths.get(sourceDirectory).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
             throw generateErrorException(DIRECTORY_NOT_FOUND);
         }
+        Path destination = Paths.get(destinationDirectory).toAbsolutePath().normalize();
+        boolean skipDestination = !destination.equals(root) && destination.startsWith(root);
+        List<PathMatcher> included = toMatchers(includes);
+        List<PathMatcher> excluded = toMatchers(excludes);
 
-        File[] files = directory.listFiles();
-        if (files == null) {
-            throw generateErrorException(FILE_NOT_FOUND);
+        try {
+            return Files.walk(root)
+                    .filter(path -> !skipDestination || !path.startsWith(destination))
+                    .filter(path -> path.getFileName().toString().endsWith(".java"))
+                    .filter(Files::isRegularFile)
+                    .map(root::relativize)
+                    .filter(path -> included.isEmpty() || included.stream().anyMatch(matcher -> matcher.matches(path)))
+                    .filter(path -> excluded.stream().noneMatch(matcher -> matcher.matches(path)))
+                    .map(Path::toString);
+        } catch (IOException e) {
+            throw generateRuntimeException(e);
         }
+    }
 
-        return Arrays.stream(files)
-                .filter(File::isFile)
-                .map(File::getName)
-                .filter(name -> name.endsWith(".java"))
+    private static List<PathMatcher> toMatchers(List<String> globs) {
+        return globs.stream()
+                .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
                 .collect(Collectors.toList());
     }
 
@@ -120,21 +124,65 @@ public class FileUtils {
      * Inserts a new java file into the destination directory,
      * which contains the changes made by the program to the file passed as input by the user through the source directory.
      *
-     * @param sourceFilePath the source file path
+     * @param destinationFile the destination file
      * @param fileContent the file content
      */
-    public static void writeOutputFile(String sourceFilePath, String fileContent) {
-        String fileName = Paths.get(sourceFilePath).getFileName().toString();
-        Path destinationDir = Paths.get(DESTINATION_BASE_PATH);
-        Path destinationFile = destinationDir.resolve(fileName);
+    public static void writeOutputFile(Path destinationFile, String fileContent) {
+        Path destinationDir = destinationFile.getParent();
+        var event = new FileWriteEvent();
+        event.begin();
         try {
             if (Files.notExists(destinationDir)) {
                 Files.createDirectories(destinationDir);
             }
-            Files.write(destinationFile, fileContent.getBytes());
+            byte[] content = fileContent.getBytes(StandardCharsets.UTF_8);
+            Files.write(destinationFile, content);
+            if (event.shouldCommit()) {
+                event.fileName = destinationFile.toString();
+                event.size = content.length;
+                event.commit();
+            }
         } catch (Exception e) {
             throw generateException(e);
         }
     }
 
+    /**
+     * Copies the user file into the destination directory without any change, replacing the previous copy.
+     *
+     * @param sourceFilePath the source file path
+     * @param destinationFile the destination file
+     */
+    public static void copyOutputFile(String sourceFilePath, Path destinationFile) {
+        Path destinationDir = destinationFile.getParent();
+        var event = new FileWriteEvent();
+        event.begin();
+        try {
+            if (Files.notExists(destinationDir)) {
+                Files.createDirectories(destinationDir);
+            }
+            Files.copy(Paths.get(sourceFilePath), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            if (event.shouldCommit()) {
+                event.fileName = destinationFile.toString();
+                event.size = Files.size(destinationFile);
+                event.copied = true;
+                event.commit();
+            }
+        } catch (IOException e) {
+            throw generateRuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the path of the file, in the destination directory, that corresponds to the source file:
+     * the directories of the source file, such as those of its package, are reproduced in the destination.
+     *
+     * @param destinationDirectory the destination directory
+     * @param fileName the path of the source file, relative to the source directory
+     * @return path
+     */
+    public static Path getDestinationPath(String destinationDirectory, String fileName) {
+        return Paths.get(destinationDirectory).resolve(fileName);
+    }
+
 }
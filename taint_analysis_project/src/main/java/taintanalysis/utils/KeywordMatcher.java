@@ -0,0 +1,127 @@
+package taintanalysis.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * <h1> KeywordMatcher </h1>
+ *
+ * This class finds whether any of a set of Java identifiers occurs in the raw bytes of a source file,
+ * scanning them once with an Aho-Corasick automaton whatever the number of identifiers.
+ * An occurrence counts only if it is a whole identifier, that is, if it is not preceded or followed
+ * by a letter, a digit, '_', '$' or a non-ASCII byte. The identifiers are matched on their UTF-8 encoding,
+ * so identifiers written with unicode escapes in the source are not recognized.
+ * The automaton is never modified after construction.
+ */
+public class KeywordMatcher {
+
+    private static final int ALPHABET = 256;
+
+    private final int[][] transitions;
+    private final int[][] matchLengths;
+
+    /**
+     * Instantiates a new matcher for the given identifiers.
+     *
+     * @param keywords the keywords
+     */
+    public KeywordMatcher(Collection<String> keywords) {
+        List<int[]> next = new ArrayList<>();
+        List<int[]> lengths = new ArrayList<>();
+        next.add(newState());
+        lengths.add(new int[0]);
+
+        for (String keyword : keywords) {
+            byte[] bytes = keyword.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0) {
+                continue;
+            }
+            int state = 0;
+            for (byte b : bytes) {
+                int symbol = b & 0xff;
+                if (next.get(state)[symbol] < 0) {
+                    next.get(state)[symbol] = next.size();
+                    next.add(newState());
+                    lengths.add(new int[0]);
+                }
+                state = next.get(state)[symbol];
+            }
+            lengths.set(state, append(lengths.get(state), bytes.length));
+        }
+
+        // Breadth-first completion of the trie into a deterministic automaton, following the failure links.
+        int[] failure = new int[next.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int child = next.get(0)[symbol];
+            if (child < 0) {
+                next.get(0)[symbol] = 0;
+            } else {
+                failure[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int length : lengths.get(failure[state])) {
+                lengths.set(state, append(lengths.get(state), length));
+            }
+            for (int symbol = 0; symbol < ALPHABET; symbol++) {
+                int child = next.get(state)[symbol];
+                if (child < 0) {
+                    next.get(state)[symbol] = next.get(failure[state])[symbol];
+                } else {
+                    failure[child] = next.get(failure[state])[symbol];
+                    queue.add(child);
+                }
+            }
+        }
+
+        transitions = next.toArray(new int[0][]);
+        matchLengths = lengths.toArray(new int[0][]);
+    }
+
+    /**
+     * Checks whether any of the identifiers occurs as a whole identifier in the content.
+     *
+     * @param content the content
+     * @return boolean
+     */
+    public boolean matches(byte[] content) {
+        int state = 0;
+        for (int i = 0; i < content.length; i++) {
+            state = transitions[state][content[i] & 0xff];
+            for (int length : matchLengths[state]) {
+                int start = i - length + 1;
+                if ((start == 0 || !isIdentifierPart(content[start - 1]))
+                        && (i + 1 == content.length || !isIdentifierPart(content[i + 1]))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                || b == '_' || b == '$' || b < 0;
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static int[] append(int[] values, int value) {
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+}
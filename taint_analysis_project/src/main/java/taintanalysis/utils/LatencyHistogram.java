@@ -0,0 +1,108 @@
+package taintanalysis.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1> LatencyHistogram </h1>
+ *
+ * This class counts durations in fixed buckets, from 50 microseconds to 10 seconds, together with their number
+ * and their sum. Each bucket counts the durations up to its upper bound and above the previous one; the last bucket
+ * counts the durations above all the bounds. Durations can be recorded by several workers at the same time
+ * without contention.
+ */
+public class LatencyHistogram {
+
+    private static final long[] UPPER_BOUNDS_NANOS = {
+            50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final LongAdder[] buckets = new LongAdder[UPPER_BOUNDS_NANOS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * Instantiates a new empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the nanos
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < UPPER_BOUNDS_NANOS.length && nanos > UPPER_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * Returns the number of buckets, including the last one, which has no upper bound.
+     *
+     * @return int
+     */
+    public static int getBucketCount() {
+        return UPPER_BOUNDS_NANOS.length + 1;
+    }
+
+    /**
+     * Returns the upper bound of the bucket in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket.
+     *
+     * @param bucket the bucket
+     * @return long
+     */
+    public static long getUpperBoundNanos(int bucket) {
+        return bucket < UPPER_BOUNDS_NANOS.length ? UPPER_BOUNDS_NANOS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the number of durations counted in the bucket.
+     *
+     * @param bucket the bucket
+     * @return long
+     */
+    public long getBucket(int bucket) {
+        return buckets[bucket].sum();
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return long
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the durations recorded, in nanoseconds.
+     *
+     * @return long
+     */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Removes all the durations recorded.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sumNanos.reset();
+    }
+
+}
@@ -0,0 +1,206 @@
+package taintanalysis.utils;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import taintanalysis.utils.AnalysisMetrics.Phase;
+import taintanalysis.utils.AnalysisMetrics.Stage;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+/**
+ * <h1> MetricsExporter </h1>
+ *
+ * This class writes the {@link AnalysisMetrics} collected during a run to a file, at the end of the run.
+ * A file whose name ends with {@code .json} is written as a Json document; any other file is written in the
+ * Prometheus text format, so that it can be collected by the textfile collector of the node exporter.
+ * Durations are exported in seconds.
+ */
+public class MetricsExporter {
+
+    private static final String PREFIX = "taint_";
+
+    private final AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+    private final double runSeconds;
+
+    /**
+     * Instantiates a new exporter of the metrics of a run.
+     *
+     * @param runNanos the duration of the run, in nanoseconds
+     */
+    public MetricsExporter(long runNanos) {
+        this.runSeconds = seconds(runNanos);
+    }
+
+    /**
+     * Writes the metrics to the file, in the format given by its extension.
+     *
+     * @param file the file
+     */
+    public void export(Path file) {
+        String content = file.getFileName().toString().endsWith(".json") ? toJson() : toPrometheus();
+        FileUtils.writeOutputFile(file.toAbsolutePath(), content);
+    }
+
+    /**
+     * Returns the metrics as a Json document.
+     *
+     * @return string
+     */
+    public String toJson() {
+        var root = new JsonObject();
+        root.addProperty("runSeconds", runSeconds);
+
+        var files = new JsonObject();
+        files.addProperty("analyzed", metrics.getAnalyzedFiles());
+        files.addProperty("reused", metrics.getReusedFiles());
+        files.addProperty("copied", metrics.getCopiedFiles());
+        root.add("files", files);
+
+        var phases = new JsonObject();
+        for (Phase phase : Phase.values()) {
+            phases.add(phase.name().toLowerCase(), toJson(metrics.getPhaseHistogram(phase)));
+        }
+        root.add("phases", phases);
+
+        var resolutions = toJson(metrics.getResolutionHistogram());
+        resolutions.addProperty("cached", metrics.getCachedResolutions());
+        root.add("resolutions", resolutions);
+
+        var calls = new JsonObject();
+        calls.addProperty("sourceLookups", metrics.getSourceLookups());
+        calls.addProperty("matchedSourceLookups", metrics.getMatchedSourceLookups());
+        calls.addProperty("skippedNestedCalls", metrics.getSkippedNestedCalls());
+        calls.addProperty("sanitizedCalls", metrics.getSanitizedCalls());
+        calls.addProperty("unreachedSources", metrics.getUnreachedSources());
+        root.add("calls", calls);
+
+        var stages = new JsonObject();
+        for (Stage stage : Stage.values()) {
+            var values = new JsonObject();
+            values.addProperty("files", metrics.getStageFiles(stage));
+            values.addProperty("busySeconds", seconds(metrics.getStageNanos(stage)));
+            values.addProperty("maxQueueDepth", metrics.getMaxQueueDepth(stage));
+            stages.add(stage.name().toLowerCase(), values);
+        }
+        root.add("stages", stages);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    /**
+     * Returns the metrics in the Prometheus text format.
+     *
+     * @return string
+     */
+    public String toPrometheus() {
+        var text = new StringBuilder();
+        header(text, "run_seconds", "gauge", "Duration of the run.");
+        sample(text, "run_seconds", "", runSeconds);
+
+        header(text, "files_total", "counter", "Files processed, by outcome.");
+        sample(text, "files_total", "outcome=\"analyzed\"", metrics.getAnalyzedFiles());
+        sample(text, "files_total", "outcome=\"reused\"", metrics.getReusedFiles());
+        sample(text, "files_total", "outcome=\"copied\"", metrics.getCopiedFiles());
+
+        header(text, "phase_duration_seconds", "histogram", "Duration of each phase of the analysis of a file.");
+        for (Phase phase : Phase.values()) {
+            histogram(text, "phase_duration_seconds", "phase=\"" + phase.name().toLowerCase() + "\"",
+                    metrics.getPhaseHistogram(phase));
+        }
+
+        header(text, "resolution_duration_seconds", "histogram", "Duration of the requests to the symbol solver.");
+        histogram(text, "resolution_duration_seconds", "", metrics.getResolutionHistogram());
+        header(text, "cached_resolutions_total", "counter", "Resolutions answered without the symbol solver.");
+        sample(text, "cached_resolutions_total", "", metrics.getCachedResolutions());
+
+        header(text, "source_lookups_total", "counter", "Searches of the configuration for the source of a call.");
+        sample(text, "source_lookups_total", "", metrics.getSourceLookups());
+        header(text, "matched_source_lookups_total", "counter", "Searches of the configuration that found a source.");
+        sample(text, "matched_source_lookups_total", "", metrics.getMatchedSourceLookups());
+        header(text, "skipped_nested_calls_total", "counter", "Calls skipped as arguments of other calls.");
+        sample(text, "skipped_nested_calls_total", "", metrics.getSkippedNestedCalls());
+        header(text, "sanitized_calls_total", "counter", "Calls wrapped with a sanitization method.");
+        sample(text, "sanitized_calls_total", "", metrics.getSanitizedCalls());
+        header(text, "unreached_sources_total", "counter", "Sources left unsanitized because no sink is reached.");
+        sample(text, "unreached_sources_total", "", metrics.getUnreachedSources());
+
+        header(text, "stage_files_total", "counter", "Files processed by each stage of the pipeline.");
+        for (Stage stage : Stage.values()) {
+            sample(text, "stage_files_total", stageLabel(stage), metrics.getStageFiles(stage));
+        }
+        header(text, "stage_busy_seconds_total", "counter", "Time the workers of each stage were busy.");
+        for (Stage stage : Stage.values()) {
+            sample(text, "stage_busy_seconds_total", stageLabel(stage), seconds(metrics.getStageNanos(stage)));
+        }
+        header(text, "stage_queue_depth_max", "gauge", "Largest number of files waiting for each stage.");
+        for (Stage stage : Stage.values()) {
+            sample(text, "stage_queue_depth_max", stageLabel(stage), metrics.getMaxQueueDepth(stage));
+        }
+        return text.toString();
+    }
+
+    private static JsonObject toJson(LatencyHistogram histogram) {
+        var result = new JsonObject();
+        result.addProperty("count", histogram.getCount());
+        result.addProperty("sumSeconds", seconds(histogram.getSumNanos()));
+        var buckets = new JsonArray();
+        for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+            var bucket = new JsonObject();
+            bucket.addProperty("le", upperBound(i));
+            bucket.addProperty("count", histogram.getBucket(i));
+            buckets.add(bucket);
+        }
+        result.add("buckets", buckets);
+        return result;
+    }
+
+    /**
+     * Appends the samples of a histogram, whose buckets are cumulative in the Prometheus format.
+     *
+     * @param text the text
+     * @param name the name
+     * @param labels the labels
+     * @param histogram the histogram
+     */
+    private static void histogram(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < LatencyHistogram.getBucketCount(); i++) {
+            cumulative += histogram.getBucket(i);
+            sample(text, name + "_bucket", labels + separator + "le=\"" + upperBound(i) + "\"", cumulative);
+        }
+        sample(text, name + "_sum", labels, seconds(histogram.getSumNanos()));
+        sample(text, name + "_count", labels, histogram.getCount());
+    }
+
+    private static void header(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, Object value) {
+        text.append(PREFIX).append(name);
+        if (!labels.isEmpty()) {
+            text.append('{').append(labels).append('}');
+        }
+        text.append(' ').append(value).append('\n');
+    }
+
+    private static String stageLabel(Stage stage) {
+        return "stage=\"" + stage.name().toLowerCase() + "\"";
+    }
+
+    private static String upperBound(int bucket) {
+        long nanos = LatencyHistogram.getUpperBoundNanos(bucket);
+        return nanos == Long.MAX_VALUE
+                ? "+Inf"
+                : BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+}
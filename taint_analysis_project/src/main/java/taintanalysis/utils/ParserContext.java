@@ -0,0 +1,87 @@
+package taintanalysis.utils;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <h1> ParserContext </h1>
+ *
+ * This class holds the parser configuration and the symbol solver used for the whole run.
+ * The type solvers, with their caches, are built once and shared by every file and every worker;
+ * each worker thread gets its own JavaParser, since a parser instance cannot be used by two threads at the same time.
+ */
+public class ParserContext {
+
+    /**
+     * Maximum number of entries kept by each cache of the symbol solver.
+     */
+    public static final long SOLVER_CACHE_SIZE = 10_000;
+
+    private static final String PROJECT_SOURCES_PATH = "src/main/java";
+
+    private static final ParserContext parserContext = new ParserContext();
+
+    private final ParserConfiguration parserConfiguration;
+    private final ThreadLocal<JavaParser> parsers;
+    private final BoundedCache<Path, Optional<CompilationUnit>> parsedFiles = new BoundedCache<>(SOLVER_CACHE_SIZE);
+    private final BoundedCache<Path, List<CompilationUnit>> parsedDirectories = new BoundedCache<>(SOLVER_CACHE_SIZE);
+
+    private ParserContext() {
+        // The parser of the project sources is only used behind the synchronized type solver. It accepts the latest
+        // syntax, as the default parser of the type solver does, so that the types declared with it are resolved.
+        var projectParser = new JavaParser(new ParserConfiguration()
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE));
+        var projectTypeSolver = new JavaParserTypeSolver(Paths.get(PROJECT_SOURCES_PATH),
+                projectParser, parsedFiles, parsedDirectories, new BoundedCache<>(SOLVER_CACHE_SIZE));
+
+        var combinedTypeSolver = new CombinedTypeSolver(
+                CombinedTypeSolver.ExceptionHandlers.IGNORE_NONE,
+                List.of(new ReflectionTypeSolver(), new SynchronizedTypeSolver(projectTypeSolver)),
+                new BoundedCache<>(SOLVER_CACHE_SIZE));
+
+        parserConfiguration = new ParserConfiguration()
+                .setSymbolResolver(new JavaSymbolSolver(combinedTypeSolver));
+        parsers = ThreadLocal.withInitial(() -> new JavaParser(parserConfiguration));
+    }
+
+    /**
+     * Returns the only instance of the class.
+     *
+     * @return parser context
+     */
+    public static ParserContext getInstance() {
+        return parserContext;
+    }
+
+    /**
+     * Returns the JavaParser of the current thread, configured with the shared symbol solver.
+     *
+     * @return java parser
+     */
+    public JavaParser getParser() {
+        return parsers.get();
+    }
+
+    /**
+     * Limits the number of project files and directories whose parsed trees are kept by the symbol solver,
+     * discarding the least recently used ones. The trees of the analyzed files are not kept by the solver:
+     * the results of their resolutions are stored in their own nodes and released with them.
+     *
+     * @param maximumSize the maximum size
+     */
+    public void limitParsedTrees(long maximumSize) {
+        parsedFiles.setMaximumSize(maximumSize);
+        parsedDirectories.setMaximumSize(maximumSize);
+    }
+
+}
@@ -0,0 +1,133 @@
+package taintanalysis.utils;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+import com.github.javaparser.TokenRange;
+import com.github.javaparser.ast.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * <h1> SourceSplicer </h1>
+ *
+ * This class applies the changes made to a CompilationUnit to the original text of the file, instead of printing
+ * the whole tree again: the text of each changed node is kept as it is, and only the text added around it is inserted.
+ * The rest of the file, with its formatting and comments, is copied unchanged, so the work done besides the copy
+ * depends on the number of edits and not on the size of the file.
+ * <p>
+ * The position of a node is converted to an offset in the text from its line and column, counting "\r\n", "\r"
+ * and "\n" as line terminators as the parser does. If the text at the offsets does not match the first and the last
+ * token of a node, as can happen with unicode escapes, the text cannot be spliced and the tree must be printed instead.
+ */
+public class SourceSplicer {
+
+    private final String source;
+    private final int[] lineStarts;
+
+    /**
+     * Instantiates a new splicer of the text the CompilationUnit has been parsed from.
+     *
+     * @param source the source
+     */
+    public SourceSplicer(String source) {
+        this.source = source;
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == source.length() || source.charAt(i + 1) != '\n'))) {
+                starts.add(i + 1);
+            }
+        }
+        lineStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the original text with the edits applied, or an empty optional if one of them cannot be located.
+     *
+     * @param edits the edits
+     * @return optional string
+     */
+    public Optional<String> splice(List<Edit> edits) {
+        List<Insertion> insertions = new ArrayList<>();
+        int addedLength = 0;
+        for (Edit edit : edits) {
+            Optional<Range> range = edit.node().getRange();
+            Optional<TokenRange> tokens = edit.node().getTokenRange();
+            if (range.isEmpty() || tokens.isEmpty()) {
+                return Optional.empty();
+            }
+            int begin = offsetOf(range.get().begin);
+            int end = offsetOf(range.get().end) + 1;
+            if (begin < 0 || end <= begin || !matches(tokens.get().getBegin(), begin, false)
+                    || !matches(tokens.get().getEnd(), end, true)) {
+                return Optional.empty();
+            }
+            // An edit wrapping a node inserts its prefix before, and its suffix after, those of the nodes it contains.
+            insertions.add(new Insertion(begin, 1, -(end - begin), edit.prefix()));
+            insertions.add(new Insertion(end, 0, end - begin, edit.suffix()));
+            addedLength += edit.prefix().length() + edit.suffix().length();
+        }
+        insertions.sort(Comparator.comparingInt(Insertion::offset)
+                .thenComparingInt(Insertion::kind)
+                .thenComparingInt(Insertion::order));
+
+        var output = new StringBuilder(source.length() + addedLength);
+        int copied = 0;
+        for (Insertion insertion : insertions) {
+            output.append(source, copied, insertion.offset()).append(insertion.text());
+            copied = insertion.offset();
+        }
+        return Optional.of(output.append(source, copied, source.length()).toString());
+    }
+
+    /**
+     * Returns the offset in the text of the position, or -1 if it is outside the text.
+     *
+     * @param position the position
+     * @return int
+     */
+    private int offsetOf(Position position) {
+        if (position.line < 1 || position.line > lineStarts.length || position.column < 1) {
+            return -1;
+        }
+        int offset = lineStarts[position.line - 1] + position.column - 1;
+        return offset < source.length() ? offset : -1;
+    }
+
+    /**
+     * Checks whether the text of the token is found at the offset where it begins, or where it ends.
+     *
+     * @param token the token
+     * @param offset the offset
+     * @param endsAtOffset whether the offset is the end of the token
+     * @return boolean
+     */
+    private boolean matches(JavaToken token, int offset, boolean endsAtOffset) {
+        String text = token.getText();
+        int begin = endsAtOffset ? offset - text.length() : offset;
+        return begin >= 0 && source.startsWith(text, begin);
+    }
+
+    /**
+     * A change of the text of a node: the prefix is inserted before its text and the suffix after it.
+     *
+     * @param node the node, with the position it had in the parsed text
+     * @param prefix the prefix
+     * @param suffix the suffix
+     */
+    public record Edit(Node node, String prefix, String suffix) {
+    }
+
+    /**
+     * A text inserted at an offset. At the same offset, the suffixes (kind 0) come before the prefixes (kind 1),
+     * and each kind is ordered so that the edits of the enclosing nodes surround those of the nested ones.
+     */
+    private record Insertion(int offset, int kind, int order, String text) {
+    }
+
+}
@@ -0,0 +1,234 @@
+package taintanalysis.utils;
+
+import taintanalysis.utils.AnalysisMetrics.Stage;
+import taintanalysis.utils.AsyncLogger.Level;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * <h1> StagedPipeline </h1>
+ *
+ * This class processes a sequence of items through a chain of stages, each run by its own workers,
+ * so that the stages work on different items at the same time. The stages are connected by bounded queues:
+ * when a stage falls behind, its queue fills up and the workers of the previous stage wait, up to the first stage,
+ * whose queue is filled by the thread consuming the input; so the items in flight never exceed the sum of the
+ * capacities of the queues and the number of workers, whatever the size of the input.
+ * <p>
+ * The end of the input is signaled to each stage once all the workers of the previous stage have stopped.
+ * If an action fails or a worker is interrupted, the following items are discarded, and the first error is thrown
+ * once all the workers have stopped; the workers keep taking the items of their queue until its end, so no stage
+ * waits forever for a queue that is no longer emptied. The depth of the queues and the number of items processed
+ * by each stage are recorded in {@link AnalysisMetrics}, and logged periodically at the info level while
+ * the pipeline runs.
+ *
+ * @param <T> the type of the items
+ */
+public class StagedPipeline<T> {
+
+    private static final Object END = new Object();
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+
+    private final int capacity;
+    private final List<StageWorkers> stages = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+    private final AsyncLogger logger = AsyncLogger.getInstance();
+
+    /**
+     * Instantiates a new pipeline whose queues hold at most the given number of items.
+     *
+     * @param capacity the capacity
+     */
+    public StagedPipeline(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a stage at the end of the pipeline.
+     *
+     * @param stage the stage
+     * @param workers the number of workers
+     * @param action the action applied to each item
+     * @return staged pipeline
+     */
+    public StagedPipeline<T> stage(Stage stage, int workers, Consumer<T> action) {
+        stages.add(new StageWorkers(stage, workers, action));
+        return this;
+    }
+
+    /**
+     * Passes all the items of the input through the stages, and waits until the last stage has processed them.
+     *
+     * @param input the input
+     * @return the number of items
+     * @throws InterruptedException the interrupted exception
+     */
+    public long run(Iterator<T> input) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            StageWorkers stage = stages.get(i);
+            StageWorkers next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+            for (int worker = 1; worker <= stage.workers; worker++) {
+                Thread thread = new Thread(() -> stage.work(next),
+                        "pipeline-" + stage.stage.name().toLowerCase() + "-" + worker);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pipeline-report");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (AsyncLogger.isEnabled(Level.INFO)) {
+            reporter.scheduleAtFixedRate(this::report, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS,
+                    TimeUnit.SECONDS);
+        }
+
+        long items = 0;
+        StageWorkers first = stages.get(0);
+        try {
+            while (failure.get() == null && input.hasNext()) {
+                first.put(input.next());
+                items++;
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            first.end();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            reporter.shutdownNow();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof Error) {
+            throw (Error) error;
+        } else if (error instanceof InterruptedException) {
+            throw (InterruptedException) error;
+        } else if (error != null) {
+            throw (RuntimeException) error;
+        }
+        return items;
+    }
+
+    /**
+     * Logs the number of items waiting in the queue of each stage and the number of items it has processed.
+     */
+    private void report() {
+        for (StageWorkers stage : stages) {
+            logger.log(Level.INFO, "pipeline.progress", "stage", stage.stage.name().toLowerCase(),
+                    "queue", stage.queue.size() + "/" + capacity,
+                    "done", String.valueOf(metrics.getStageFiles(stage.stage)), null, null);
+        }
+    }
+
+    /**
+     * A stage with its queue and the number of its workers that are still running.
+     */
+    private class StageWorkers {
+        private final Stage stage;
+        private final int workers;
+        private final Consumer<T> action;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(capacity);
+        private final AtomicInteger running;
+
+        private StageWorkers(Stage stage, int workers, Consumer<T> action) {
+            this.stage = stage;
+            this.workers = workers;
+            this.action = action;
+            this.running = new AtomicInteger(workers);
+        }
+
+        private void put(Object item) throws InterruptedException {
+            queue.put(item);
+            metrics.recordQueueDepth(stage, queue.size());
+        }
+
+        /**
+         * Signals the end of the input to each worker of the stage. The signals are delivered even if the thread
+         * is interrupted meanwhile, since the workers could not stop without them; the interruption is kept.
+         */
+        private void end() {
+            boolean interrupted = false;
+            int signaled = 0;
+            while (signaled < workers) {
+                try {
+                    queue.put(END);
+                    signaled++;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Processes the items of the queue until the end of the input, passing them to the next stage.
+         * The last worker to stop signals the end of the input to the next stage, however the worker stops.
+         *
+         * @param next the next stage, or null
+         */
+        @SuppressWarnings("unchecked")
+        private void work(StageWorkers next) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    Object item;
+                    try {
+                        item = queue.take();
+                    } catch (InterruptedException e) {
+                        // The run fails, but the worker keeps taking items, so that the previous stage is never
+                        // blocked on a full queue.
+                        interrupted = true;
+                        failure.compareAndSet(null, e);
+                        continue;
+                    }
+                    if (item == END) {
+                        return;
+                    }
+                    if (failure.get() != null) {
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        action.accept((T) item);
+                    } catch (RuntimeException | Error e) {
+                        failure.compareAndSet(null, e);
+                        continue;
+                    }
+                    metrics.countStageFile(stage, System.nanoTime() - start);
+                    if (next != null) {
+                        try {
+                            next.put(item);
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }
+            } finally {
+                if (running.decrementAndGet() == 0 && next != null) {
+                    next.end();
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package taintanalysis.utils;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.ObjectCreationExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.resolution.declarations.ResolvedConstructorDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.github.javaparser.resolution.types.ResolvedType;
+import taintanalysis.events.AnalysisEvents;
+import taintanalysis.events.SymbolResolutionEvent;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <h1> SymbolResolution </h1>
+ *
+ * This class is the single entry point through which the analysis asks the symbol solver to resolve a node,
+ * so that every resolution is counted in the metrics of the analysis.
+ * <p>
+ * The result of each resolution is kept in the data of the resolved node, so the same node is resolved only once
+ * however many times the visitor, the constructor analyzer and the logging aspect ask for it.
+ * The results live as long as the tree they belong to, and nodes created by a later change of the tree,
+ * such as a sanitized call, are resolved afresh. Failed resolutions are not kept.
+ */
+public class SymbolResolution {
+
+    private static final DataKey<ResolvedType> RESOLVED_TYPE = new DataKey<>() {
+    };
+    private static final DataKey<ResolvedMethodDeclaration> RESOLVED_METHOD = new DataKey<>() {
+    };
+    private static final DataKey<ResolvedValueDeclaration> RESOLVED_FIELD = new DataKey<>() {
+    };
+    private static final DataKey<ResolvedConstructorDeclaration> RESOLVED_CONSTRUCTOR = new DataKey<>() {
+    };
+
+    private SymbolResolution() {
+    }
+
+    /**
+     * Returns the type of the expression.
+     *
+     * @param expression the expression
+     * @return resolved type
+     */
+    public static ResolvedType typeOf(Expression expression) {
+        return resolve(expression, RESOLVED_TYPE, "type", expression::calculateResolvedType, ResolvedType::describe);
+    }
+
+    /**
+     * Returns the declaration of the invoked method.
+     *
+     * @param methodCall the method call
+     * @return resolved method declaration
+     */
+    public static ResolvedMethodDeclaration methodOf(MethodCallExpr methodCall) {
+        return resolve(methodCall, RESOLVED_METHOD, "method", methodCall::resolve,
+                method -> method.declaringType().getQualifiedName());
+    }
+
+    /**
+     * Returns the declaration of the invoked constructor.
+     *
+     * @param creation the creation
+     * @return resolved constructor declaration
+     */
+    public static ResolvedConstructorDeclaration constructorOf(ObjectCreationExpr creation) {
+        return resolve(creation, RESOLVED_CONSTRUCTOR, "constructor", creation::resolve,
+                constructor -> constructor.declaringType().getQualifiedName());
+    }
+
+    /**
+     * Returns the type referenced by the node.
+     *
+     * @param type the type
+     * @return resolved type
+     */
+    public static ResolvedType typeOf(ClassOrInterfaceType type) {
+        return resolve(type, RESOLVED_TYPE, "type", type::resolve, ResolvedType::describe);
+    }
+
+    /**
+     * Returns the declaration of the accessed field.
+     *
+     * @param fieldAccess the field access
+     * @return resolved value declaration
+     */
+    public static ResolvedValueDeclaration fieldOf(FieldAccessExpr fieldAccess) {
+        return resolve(fieldAccess, RESOLVED_FIELD, "field", fieldAccess::resolve,
+                field -> field.getType().describe());
+    }
+
+    /**
+     * Returns the result kept in the node under the key, asking the symbol solver only if there is none.
+     * Each request to the symbol solver emits a {@link SymbolResolutionEvent}, if the event is enabled.
+     *
+     * @param node the node
+     * @param key the key
+     * @param kind the kind of resolution, reported by the event
+     * @param resolver the resolver
+     * @param describer returns the class reported by the event for the result
+     * @param <T> the type of the result
+     * @return the result of the resolution
+     */
+    private static <T> T resolve(Node node, DataKey<T> key, String kind, Supplier<T> resolver,
+                                 Function<T, String> describer) {
+        AnalysisMetrics metrics = AnalysisMetrics.getInstance();
+        if (node.containsData(key)) {
+            metrics.countCachedResolution();
+            return node.getData(key);
+        }
+        var event = new SymbolResolutionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = resolver.get();
+        } finally {
+            metrics.countResolution(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.fileName = AnalysisEvents.fileNameOf(node);
+                event.kind = kind;
+                event.methodName = node instanceof MethodCallExpr ? ((MethodCallExpr) node).getNameAsString() : null;
+                event.resolvedClass = result != null ? describe(result, describer) : null;
+                event.succeeded = result != null;
+                event.commit();
+            }
+        }
+        node.setData(key, result);
+        return result;
+    }
+
+    private static <T> String describe(T result, Function<T, String> describer) {
+        try {
+            return describer.apply(result);
+        } catch (RuntimeException e) {
+            // The declaring type of a resolved declaration may itself be unresolvable.
+            return null;
+        }
+    }
+
+}
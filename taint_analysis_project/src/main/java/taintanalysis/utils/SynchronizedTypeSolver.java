@@ -0,0 +1,46 @@
+package taintanalysis.utils;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+
+/**
+ * <h1> SynchronizedTypeSolver </h1>
+ *
+ * This class wraps a type solver that is not safe under concurrent use,
+ * such as the one parsing the project sources, so that only one lookup at a time reaches it.
+ */
+public class SynchronizedTypeSolver implements TypeSolver {
+
+    private final TypeSolver delegate;
+
+    /**
+     * Instantiates a new wrapper around the given type solver.
+     *
+     * @param delegate the delegate
+     */
+    public SynchronizedTypeSolver(TypeSolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized TypeSolver getParent() {
+        return delegate.getParent();
+    }
+
+    @Override
+    public synchronized void setParent(TypeSolver parent) {
+        delegate.setParent(parent);
+    }
+
+    @Override
+    public synchronized SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        return delegate.tryToSolveType(name);
+    }
+
+    @Override
+    public String toString() {
+        return "SynchronizedTypeSolver{" + delegate + "}";
+    }
+
+}